@@ -3,6 +3,7 @@ plugins {
 	id("org.springframework.boot") version "3.2.4"
 	id("io.spring.dependency-management") version "1.1.4"
 	id("io.freefair.lombok") version "8.6"
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "vn.hoangtung"
@@ -27,10 +28,25 @@ dependencies {
 	implementation("com.turkraft.springfilter:jpa:3.1.7")
 	implementation("org.springframework.boot:spring-boot-starter-oauth2-resource-server")
 	implementation("org.springframework.boot:spring-boot-starter-mail")
+	implementation("com.github.ben-manes.caffeine:caffeine")
+	implementation("com.github.ben-manes.caffeine:jcache")
+	implementation("org.hibernate.orm:hibernate-jcache")
+	implementation("org.hibernate.orm:hibernate-micrometer")
+	// FileUpload 1.x chỉ hỗ trợ javax.servlet; nhánh 2.x (jakarta) chưa có bản GA.
+	// Chỉ dùng getItemIterator (streaming API giữ nguyên từ 1.x), nâng lên GA khi có.
+	// >= 2.0.0-M4: sửa CVE-2025-48976 (header của part không bị giới hạn size)
+	implementation("org.apache.commons:commons-fileupload2-jakarta-servlet6:2.0.0-M4")
 	developmentOnly("org.springframework.boot:spring-boot-devtools")
 	runtimeOnly("com.mysql:mysql-connector-j")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testImplementation("org.springframework.security:spring-security-test")
+	testImplementation("com.h2database:h2")
+}
+
+jmh {
+	warmupIterations.set(3)
+	iterations.set(5)
+	fork.set(1)
 }
 
 tasks.withType<Test> {
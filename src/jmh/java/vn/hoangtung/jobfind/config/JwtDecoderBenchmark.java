@@ -0,0 +1,84 @@
+package vn.hoangtung.jobfind.config;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import vn.hoangtung.jobfind.util.SecurityUtil;
+
+/**
+ * So sánh decode 1 access token lặp lại (như SPA gửi mỗi request) giữa
+ * NimbusJwtDecoder trần và CachingJwtDecoder bọc bên ngoài.
+ * Chạy: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtDecoderBenchmark {
+
+    // cùng độ dài với hoangtung.jwt.base64-secret (64 byte cho HS512)
+    private static final String SECRET = "go2DinW/jEBzBT6Nvxd+6rhb6E/MbthiPG4H8GaJjYwZvKj1pd+IGBqIMpXvHUkeyxBIOVexwcTzinM/ymclNg==";
+
+    private String token;
+    private JwtDecoder nimbusDecoder;
+    private JwtDecoder cachingDecoder;
+
+    @Setup
+    public void setUp() {
+        byte[] keyBytes = Base64.getDecoder().decode(SECRET);
+        SecretKey key = new SecretKeySpec(keyBytes, 0, keyBytes.length, SecurityUtil.JWT_ALGORITHM.getName());
+
+        // claims giống token do SecurityUtil.createAccessToken phát hành
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuedAt(now)
+                .expiresAt(now.plus(1, ChronoUnit.DAYS))
+                .subject("admin@gmail.com")
+                .claim("user", Map.of("id", 1L, "email", "admin@gmail.com", "name", "I'm super admin"))
+                .claim(SecurityUtil.ROLE_ID_CLAIM, 1L)
+                .claim(SecurityUtil.ROLE_VERSION_CLAIM, 3L)
+                .claim(SecurityUtil.AUTH_EPOCH_CLAIM, 0L)
+                .build();
+        this.token = new NimbusJwtEncoder(new ImmutableSecret<>(key))
+                .encode(JwtEncoderParameters.from(JwsHeader.with(SecurityUtil.JWT_ALGORITHM).build(), claims))
+                .getTokenValue();
+
+        this.nimbusDecoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(SecurityUtil.JWT_ALGORITHM).build();
+        this.cachingDecoder = new CachingJwtDecoder(
+                NimbusJwtDecoder.withSecretKey(key).macAlgorithm(SecurityUtil.JWT_ALGORITHM).build(),
+                new SimpleMeterRegistry(), 10000, 3600);
+    }
+
+    @Benchmark
+    public Jwt nimbus() {
+        return this.nimbusDecoder.decode(this.token);
+    }
+
+    @Benchmark
+    public Jwt cached() {
+        return this.cachingDecoder.decode(this.token);
+    }
+}
@@ -0,0 +1,87 @@
+package vn.hoangtung.jobfind.config;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bọc NimbusJwtDecoder bằng cache các Jwt đã verify. SPA gửi cùng một token cho
+ * hàng nghìn request, nên chỉ lần đầu phải parse Base64/JSON và tính lại
+ * HMAC-SHA512; các lần sau là 1 lần tra hash map.
+ * Key là chính chuỗi token (hashCode + equals), nên hash trùng không bao giờ trả
+ * nhầm Jwt của token khác. Entry hết hạn đúng lúc token hết hạn (exp), không lâu hơn.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Cache<String, Jwt> cache;
+    private final Timer hitTimer;
+    private final Timer missTimer;
+
+    public CachingJwtDecoder(JwtDecoder delegate, MeterRegistry meterRegistry, long maxSize, long maxTtlSeconds) {
+        this.delegate = delegate;
+        Duration maxTtl = Duration.ofSeconds(maxTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(String token, Jwt jwt, long currentTime) {
+                        Duration ttl = maxTtl;
+                        if (jwt.getExpiresAt() != null) {
+                            Duration untilExp = Duration.between(Instant.now(), jwt.getExpiresAt());
+                            ttl = untilExp.compareTo(maxTtl) < 0 ? untilExp : maxTtl;
+                        }
+                        return Math.max(0, ttl.toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, "jwt");
+        this.hitTimer = meterRegistry.timer("jwt.decode", "cache", "hit");
+        this.missTimer = meterRegistry.timer("jwt.decode", "cache", "miss");
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long start = System.nanoTime();
+        Jwt jwt = this.cache.getIfPresent(token);
+        if (jwt != null) {
+            this.hitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return jwt;
+        }
+        // token lỗi / hết hạn ném exception ở đây và không được cache
+        jwt = this.delegate.decode(token);
+        this.cache.put(token, jwt);
+        this.missTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return jwt;
+    }
+
+    // logout: lần dùng tiếp theo của token phải verify lại từ đầu
+    public void evict(String token) {
+        if (token != null) {
+            this.cache.invalidate(token);
+        }
+    }
+}
@@ -1,8 +1,20 @@
 package vn.hoangtung.jobfind.config;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import vn.hoangtung.jobfind.domain.Permission;
@@ -11,133 +23,248 @@ import vn.hoangtung.jobfind.domain.User;
 import vn.hoangtung.jobfind.repository.PermissionRepository;
 import vn.hoangtung.jobfind.repository.RoleRepository;
 import vn.hoangtung.jobfind.repository.UserRepository;
+import vn.hoangtung.jobfind.service.PermissionCatalogService;
 import vn.hoangtung.jobfind.util.constant.GenderEnum;
 
+/**
+ * Seed dữ liệu khi khởi động theo kiểu diff: checksum của bộ seed (permissions,
+ * role, admin) được lưu ở bảng seed_state; nếu không đổi thì bỏ qua toàn bộ.
+ * Khi đổi, chỉ insert (batch) permission còn thiếu và mapping permission_role
+ * còn thiếu của SUPER_ADMIN (diff mỗi lần khởi động), không ghi lại cả bag. Mật khẩu admin chỉ reset khi
+ * bật hoangtung.seed.reset-admin-password. Thời gian từng bước có ở
+ * /actuator/startup (step "jobfind.seed.*").
+ */
 @Service
 public class DatabaseInitializer implements CommandLineRunner {// https://stackoverflow.com/questions/27644890/spring-boot-commandlinerunner-exception-handling
 
+    private static final String SEED_NAME = "default";
+    private static final String ADMIN_ROLE = "SUPER_ADMIN";
+    private static final String ADMIN_EMAIL = "admin@gmail.com";
+    private static final String ADMIN_PASSWORD = "123456";
+
     private final PermissionRepository permissionRepository;
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationStartup applicationStartup;
+    private final PermissionCatalogService permissionCatalogService;
+
+    @Value("${hoangtung.seed.reset-admin-password:false}")
+    private boolean resetAdminPassword;
 
     public DatabaseInitializer(
             PermissionRepository permissionRepository,
             RoleRepository roleRepository,
             UserRepository userRepository,
-            PasswordEncoder passwordEncoder) {
+            PasswordEncoder passwordEncoder,
+            JdbcTemplate jdbcTemplate,
+            ApplicationStartup applicationStartup,
+            PermissionCatalogService permissionCatalogService) {
         this.permissionRepository = permissionRepository;
         this.roleRepository = roleRepository;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.applicationStartup = applicationStartup;
+        this.permissionCatalogService = permissionCatalogService;
+    }
+
+    // tên hiển thị cho các route chính; route không có ở đây được PermissionCatalogService tự thêm
+    static List<Permission> seedPermissions() {
+        ArrayList<Permission> arr = new ArrayList<>();
+        arr.add(new Permission("Create a company", "/api/v1/companies", "POST", "COMPANIES"));
+        arr.add(new Permission("Update a company", "/api/v1/companies", "PUT", "COMPANIES"));
+        arr.add(new Permission("Delete a company", "/api/v1/companies/{id}", "DELETE", "COMPANIES"));
+        arr.add(new Permission("Get a company by id", "/api/v1/companies/{id}", "GET", "COMPANIES"));
+        arr.add(new Permission("Get companies with pagination", "/api/v1/companies", "GET", "COMPANIES"));
+
+        arr.add(new Permission("Create a job", "/api/v1/jobs", "POST", "JOBS"));
+        arr.add(new Permission("Update a job", "/api/v1/jobs", "PUT", "JOBS"));
+        arr.add(new Permission("Delete a job", "/api/v1/jobs/{id}", "DELETE", "JOBS"));
+        arr.add(new Permission("Get a job by id", "/api/v1/jobs/{id}", "GET", "JOBS"));
+        arr.add(new Permission("Get jobs with pagination", "/api/v1/jobs", "GET", "JOBS"));
+        arr.add(new Permission("Bulk import jobs", "/api/v1/jobs/bulk", "POST", "JOBS"));
+        arr.add(new Permission("Bulk import jobs from CSV", "/api/v1/jobs/bulk/csv", "POST", "JOBS"));
+
+        arr.add(new Permission("Create a permission", "/api/v1/permissions", "POST", "PERMISSIONS"));
+        arr.add(new Permission("Update a permission", "/api/v1/permissions", "PUT", "PERMISSIONS"));
+        arr.add(new Permission("Delete a permission", "/api/v1/permissions/{id}", "DELETE", "PERMISSIONS"));
+        arr.add(new Permission("Get a permission by id", "/api/v1/permissions/{id}", "GET", "PERMISSIONS"));
+        arr.add(new Permission("Get permissions with pagination", "/api/v1/permissions", "GET", "PERMISSIONS"));
+
+        arr.add(new Permission("Create a resume", "/api/v1/resumes", "POST", "RESUMES"));
+        arr.add(new Permission("Update a resume", "/api/v1/resumes", "PUT", "RESUMES"));
+        arr.add(new Permission("Delete a resume", "/api/v1/resumes/{id}", "DELETE", "RESUMES"));
+        arr.add(new Permission("Get a resume by id", "/api/v1/resumes/{id}", "GET", "RESUMES"));
+        arr.add(new Permission("Get resumes with pagination", "/api/v1/resumes", "GET", "RESUMES"));
+        arr.add(new Permission("Get list resumes by user", "/api/v1/resumes/by-user", "POST", "RESUMES"));
+
+        arr.add(new Permission("Create a role", "/api/v1/roles", "POST", "ROLES"));
+        arr.add(new Permission("Update a role", "/api/v1/roles", "PUT", "ROLES"));
+        arr.add(new Permission("Delete a role", "/api/v1/roles/{id}", "DELETE", "ROLES"));
+        arr.add(new Permission("Get a role by id", "/api/v1/roles/{id}", "GET", "ROLES"));
+        arr.add(new Permission("Get roles with pagination", "/api/v1/roles", "GET", "ROLES"));
+
+        arr.add(new Permission("Create a user", "/api/v1/users", "POST", "USERS"));
+        arr.add(new Permission("Update a user", "/api/v1/users", "PUT", "USERS"));
+        arr.add(new Permission("Delete a user", "/api/v1/users/{id}", "DELETE", "USERS"));
+        arr.add(new Permission("Get a user by id", "/api/v1/users/{id}", "GET", "USERS"));
+        arr.add(new Permission("Get users with pagination", "/api/v1/users", "GET", "USERS"));
+
+        arr.add(new Permission("Create a subscriber", "/api/v1/subscribers", "POST", "SUBSCRIBERS"));
+        arr.add(new Permission("Update a subscriber", "/api/v1/subscribers", "PUT", "SUBSCRIBERS"));
+        arr.add(new Permission("Delete a subscriber", "/api/v1/subscribers/{id}", "DELETE", "SUBSCRIBERS"));
+        arr.add(new Permission("Get a subscriber by id", "/api/v1/subscribers/{id}", "GET", "SUBSCRIBERS"));
+        arr.add(new Permission("Get subscribers with pagination", "/api/v1/subscribers", "GET", "SUBSCRIBERS"));
+        arr.add(new Permission("Get subscriber's skill pagination", "/api/v1/subscribers/skills", "POST",
+                "SUBSCRIBERS"));
+
+        arr.add(new Permission("Download a file", "/api/v1/files", "POST", "FILES"));
+        arr.add(new Permission("Upload a file", "/api/v1/files", "GET", "FILES"));
+        return arr;
     }
 
     @Override
     public void run(String... args) throws Exception {
         System.out.println(">>> START INIT DATABASE");
-        long countPermissions = this.permissionRepository.count();
-        long countRoles = this.roleRepository.count();
-        long countUsers = this.userRepository.count();
-
-        // 1. TẠO PERMISSIONS (Nếu chưa có)
-        if (countPermissions == 0) {
-            ArrayList<Permission> arr = new ArrayList<>();
-            // ... (Giữ nguyên danh sách permission cũ của bạn) ...
-            arr.add(new Permission("Create a company", "/api/v1/companies", "POST", "COMPANIES"));
-            arr.add(new Permission("Update a company", "/api/v1/companies", "PUT", "COMPANIES"));
-            arr.add(new Permission("Delete a company", "/api/v1/companies/{id}", "DELETE", "COMPANIES"));
-            arr.add(new Permission("Get a company by id", "/api/v1/companies/{id}", "GET", "COMPANIES"));
-            arr.add(new Permission("Get companies with pagination", "/api/v1/companies", "GET", "COMPANIES"));
-
-            arr.add(new Permission("Create a job", "/api/v1/jobs", "POST", "JOBS"));
-            arr.add(new Permission("Update a job", "/api/v1/jobs", "PUT", "JOBS"));
-            arr.add(new Permission("Delete a job", "/api/v1/jobs/{id}", "DELETE", "JOBS"));
-            arr.add(new Permission("Get a job by id", "/api/v1/jobs/{id}", "GET", "JOBS"));
-            arr.add(new Permission("Get jobs with pagination", "/api/v1/jobs", "GET", "JOBS"));
-
-            arr.add(new Permission("Create a permission", "/api/v1/permissions", "POST", "PERMISSIONS"));
-            arr.add(new Permission("Update a permission", "/api/v1/permissions", "PUT", "PERMISSIONS"));
-            arr.add(new Permission("Delete a permission", "/api/v1/permissions/{id}", "DELETE", "PERMISSIONS"));
-            arr.add(new Permission("Get a permission by id", "/api/v1/permissions/{id}", "GET", "PERMISSIONS"));
-            arr.add(new Permission("Get permissions with pagination", "/api/v1/permissions", "GET", "PERMISSIONS"));
-
-            arr.add(new Permission("Create a resume", "/api/v1/resumes", "POST", "RESUMES"));
-            arr.add(new Permission("Update a resume", "/api/v1/resumes", "PUT", "RESUMES"));
-            arr.add(new Permission("Delete a resume", "/api/v1/resumes/{id}", "DELETE", "RESUMES"));
-            arr.add(new Permission("Get a resume by id", "/api/v1/resumes/{id}", "GET", "RESUMES"));
-            arr.add(new Permission("Get resumes with pagination", "/api/v1/resumes", "GET", "RESUMES"));
-            arr.add(new Permission("Get list resumes by user", "/api/v1/resumes/by-user", "POST", "RESUMES"));
-
-            arr.add(new Permission("Create a role", "/api/v1/roles", "POST", "ROLES"));
-            arr.add(new Permission("Update a role", "/api/v1/roles", "PUT", "ROLES"));
-            arr.add(new Permission("Delete a role", "/api/v1/roles/{id}", "DELETE", "ROLES"));
-            arr.add(new Permission("Get a role by id", "/api/v1/roles/{id}", "GET", "ROLES"));
-            arr.add(new Permission("Get roles with pagination", "/api/v1/roles", "GET", "ROLES"));
-
-            arr.add(new Permission("Create a user", "/api/v1/users", "POST", "USERS"));
-            arr.add(new Permission("Update a user", "/api/v1/users", "PUT", "USERS"));
-            arr.add(new Permission("Delete a user", "/api/v1/users/{id}", "DELETE", "USERS"));
-            arr.add(new Permission("Get a user by id", "/api/v1/users/{id}", "GET", "USERS"));
-            arr.add(new Permission("Get users with pagination", "/api/v1/users", "GET", "USERS"));
-
-            arr.add(new Permission("Create a subscriber", "/api/v1/subscribers", "POST", "SUBSCRIBERS"));
-            arr.add(new Permission("Update a subscriber", "/api/v1/subscribers", "PUT", "SUBSCRIBERS"));
-            arr.add(new Permission("Delete a subscriber", "/api/v1/subscribers/{id}", "DELETE", "SUBSCRIBERS"));
-            arr.add(new Permission("Get a subscriber by id", "/api/v1/subscribers/{id}", "GET", "SUBSCRIBERS"));
-            arr.add(new Permission("Get subscribers with pagination", "/api/v1/subscribers", "GET", "SUBSCRIBERS"));
-            arr.add(new Permission("Get subscriber's skill pagination", "/api/v1/subscribers/skills", "POST",
-                    "SUBSCRIBERS"));
-
-            arr.add(new Permission("Download a file", "/api/v1/files", "POST", "FILES"));
-            arr.add(new Permission("Upload a file", "/api/v1/files", "GET", "FILES"));
-
-            this.permissionRepository.saveAll(arr);
+        long start = System.currentTimeMillis();
+        StartupStep seedStep = this.applicationStartup.start("jobfind.seed");
+
+        List<Permission> seed = seedPermissions();
+        String checksum = checksum(seed);
+        this.ensureSeedStateTable();
+        List<String> stored = this.jdbcTemplate.queryForList(
+                "select checksum from seed_state where name = ?", String.class, SEED_NAME);
+        boolean unchanged = !stored.isEmpty() && stored.get(0).equals(checksum);
+        seedStep.tag("unchanged", String.valueOf(unchanged));
+
+        if (!unchanged) {
+            // 1. PERMISSIONS: chỉ insert những cái còn thiếu
+            StartupStep step = this.applicationStartup.start("jobfind.seed.permissions");
+            int inserted = this.insertMissingPermissions(seed);
+            step.tag("inserted", String.valueOf(inserted)).end();
+
+            // 2. ROLE SUPER_ADMIN (nếu chưa có)
+            step = this.applicationStartup.start("jobfind.seed.admin-role");
+            Role adminRole = this.roleRepository.findByName(ADMIN_ROLE);
+            if (adminRole == null) {
+                adminRole = new Role();
+                adminRole.setName(ADMIN_ROLE);
+                adminRole.setDescription("Admin thì full permissions");
+                adminRole.setActive(true);
+                adminRole = this.roleRepository.save(adminRole);
+            }
+            step.end();
+
+            // 3. USER ADMIN (nếu chưa có)
+            step = this.applicationStartup.start("jobfind.seed.admin-user");
+            if (this.userRepository.findByEmail(ADMIN_EMAIL) == null) {
+                User adminUser = new User();
+                adminUser.setEmail(ADMIN_EMAIL);
+                adminUser.setAddress("hn");
+                adminUser.setAge(25);
+                adminUser.setGender(GenderEnum.MALE);
+                adminUser.setName("I'm super admin");
+                adminUser.setPassword(this.passwordEncoder.encode(ADMIN_PASSWORD));
+                adminUser.setRole(adminRole);
+                this.userRepository.save(adminUser);
+            }
+            step.end();
+
+            this.jdbcTemplate.update(
+                    "insert into seed_state (name, checksum, applied_at) values (?, ?, ?) "
+                            + "on duplicate key update checksum = values(checksum), applied_at = values(applied_at)",
+                    SEED_NAME, checksum, Timestamp.from(Instant.now()));
+            System.out.println(">>> SEED: +" + inserted + " permissions");
+        } else {
+            System.out.println(">>> SEED: checksum không đổi, bỏ qua");
         }
 
-        // 2. TẠO ROLE SUPER_ADMIN (Nếu chưa có)
-        if (countRoles == 0) {
-            Role adminRole = new Role();
-            adminRole.setName("SUPER_ADMIN");
-            adminRole.setDescription("Admin thì full permissions");
-            adminRole.setActive(true);
-            this.roleRepository.save(adminRole);
+        // Route mới trong controller (chưa có trong seed) -> permission, insert 1 batch
+        StartupStep catalogStep = this.applicationStartup.start("jobfind.seed.route-catalog");
+        int discovered = this.permissionCatalogService.syncPermissions();
+        catalogStep.tag("inserted", String.valueOf(discovered)).end();
+        if (discovered > 0) {
+            System.out.println(">>> SEED: +" + discovered + " permissions từ route catalog");
         }
 
-        // 3. TẠO USER ADMIN (Nếu chưa có)
-        if (countUsers == 0) {
-            User adminUser = new User();
-            adminUser.setEmail("admin@gmail.com");
-            adminUser.setAddress("hn");
-            adminUser.setAge(25);
-            adminUser.setGender(GenderEnum.MALE);
-            adminUser.setName("I'm super admin");
-            adminUser.setPassword(this.passwordEncoder.encode("123456"));
-            Role adminRole = this.roleRepository.findByName("SUPER_ADMIN");
-            if (adminRole != null) {
-                adminUser.setRole(adminRole);
+        // Admin luôn full quyền (kể cả permission tạo qua API): 1 query diff, chỉ insert dòng thiếu
+        StartupStep mappingStep = this.applicationStartup.start("jobfind.seed.admin-mapping");
+        Role adminRole = this.roleRepository.findByName(ADMIN_ROLE);
+        int mapped = adminRole != null ? this.mapMissingPermissions(adminRole.getId()) : 0;
+        mappingStep.tag("mapped", String.valueOf(mapped)).end();
+        if (mapped > 0) {
+            System.out.println(">>> SEED: +" + mapped + " admin mappings");
+        }
+
+        // 4. Reset mật khẩu admin: chỉ khi được yêu cầu (BCrypt tốn thời gian khởi động)
+        if (this.resetAdminPassword) {
+            StartupStep step = this.applicationStartup.start("jobfind.seed.admin-password");
+            User adminUser = this.userRepository.findByEmail(ADMIN_EMAIL);
+            if (adminUser != null) {
+                adminUser.setPassword(this.passwordEncoder.encode(ADMIN_PASSWORD));
+                this.userRepository.save(adminUser);
+                System.out.println(">>> SUCCESS: Đã reset mật khẩu (" + ADMIN_PASSWORD + ") cho Admin!");
             }
-            this.userRepository.save(adminUser);
+            step.end();
         }
 
-        // 4. [QUAN TRỌNG] CẬP NHẬT LẠI QUYỀN VÀ MẬT KHẨU CHO ADMIN
-        // Đoạn này chạy mỗi lần khởi động để đảm bảo Admin luôn đúng
-        Role adminRole = this.roleRepository.findByName("SUPER_ADMIN");
-        User adminUser = this.userRepository.findByEmail("admin@gmail.com");
+        seedStep.end();
+        System.out.println(">>> END INIT DATABASE (" + (System.currentTimeMillis() - start) + " ms)");
+    }
 
-        if (adminRole != null && adminUser != null) {
-            // Cập nhật Full Quyền cho Role Admin
-            List<Permission> allPermissions = this.permissionRepository.findAll();
-            adminRole.setPermissions(allPermissions);
-            this.roleRepository.save(adminRole);
+    private void ensureSeedStateTable() {
+        this.jdbcTemplate.execute("create table if not exists seed_state ("
+                + "name varchar(64) not null primary key, "
+                + "checksum varchar(64) not null, "
+                + "applied_at datetime(6) not null)");
+    }
 
-            // Cập nhật lại Password cho User Admin (để chắc chắn là 123456)
-            adminUser.setRole(adminRole);
-            adminUser.setPassword(this.passwordEncoder.encode("123456"));
-            this.userRepository.save(adminUser);
+    private int insertMissingPermissions(List<Permission> seed) {
+        Set<String> existing = new HashSet<>();
+        for (Object[] row : this.permissionRepository.findAllKeys()) {
+            existing.add(row[0] + " " + row[1]);
+        }
+        List<Object[]> missing = new ArrayList<>();
+        Timestamp now = Timestamp.from(Instant.now());
+        for (Permission p : seed) {
+            if (existing.add(p.getMethod() + " " + p.getApiPath())) {
+                missing.add(new Object[] { p.getName(), p.getApiPath(), p.getMethod(), p.getModule(), now, "" });
+            }
+        }
+        if (!missing.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(
+                    "insert into permissions (name, api_path, method, module, created_at, created_by) "
+                            + "values (?, ?, ?, ?, ?, ?)",
+                    missing);
+        }
+        return missing.size();
+    }
 
-            System.out.println(">>> SUCCESS: Đã cập nhật Full Quyền và Reset mật khẩu (123456) cho Admin!");
+    // admin có full quyền: thêm các dòng permission_role còn thiếu, không xóa/ghi lại dòng cũ
+    private int mapMissingPermissions(long roleId) {
+        List<Long> missing = this.jdbcTemplate.queryForList(
+                "select p.id from permissions p where not exists ("
+                        + "select 1 from permission_role pr where pr.role_id = ? and pr.permission_id = p.id)",
+                Long.class, roleId);
+        if (missing.isEmpty()) {
+            return 0;
         }
+        List<Object[]> rows = missing.stream().map(id -> new Object[] { roleId, id }).toList();
+        this.jdbcTemplate.batchUpdate("insert into permission_role (role_id, permission_id) values (?, ?)", rows);
+        // token đang mang version cũ sẽ load lại bảng quyền
+        this.roleRepository.incrementPermissionVersion(List.of(roleId));
+        return missing.size();
+    }
 
-        System.out.println(">>> END INIT DATABASE");
+    private static String checksum(List<Permission> seed) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update((ADMIN_ROLE + "|" + ADMIN_EMAIL + "\n").getBytes(StandardCharsets.UTF_8));
+        for (Permission p : seed) {
+            String line = p.getModule() + "|" + p.getMethod() + "|" + p.getApiPath() + "|" + p.getName() + "\n";
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
     }
-}
\ No newline at end of file
+}
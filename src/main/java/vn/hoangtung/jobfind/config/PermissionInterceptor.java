@@ -1,28 +1,32 @@
 package vn.hoangtung.jobfind.config;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.HandlerMapping;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import vn.hoangtung.jobfind.domain.Permission;
-import vn.hoangtung.jobfind.domain.Role;
-import vn.hoangtung.jobfind.domain.User;
-import vn.hoangtung.jobfind.service.UserService;
+import vn.hoangtung.jobfind.service.CurrentUserContext;
+import vn.hoangtung.jobfind.service.PermissionCatalogService;
+import vn.hoangtung.jobfind.service.RolePermissionCache;
 import vn.hoangtung.jobfind.util.SecurityUtil;
 import vn.hoangtung.jobfind.util.error.PermissionException;
 
 public class PermissionInterceptor implements HandlerInterceptor {// https://stackoverflow.com/a/42113069
 
     @Autowired
-    UserService userService;
+    RolePermissionCache rolePermissionCache;
+
+    @Autowired
+    CurrentUserContext currentUserContext;
+
+    @Autowired
+    PermissionCatalogService permissionCatalogService;
 
     @Override
-    @Transactional
     public boolean preHandle(
             HttpServletRequest request,
             HttpServletResponse response, Object handler)
@@ -37,28 +41,50 @@ public class PermissionInterceptor implements HandlerInterceptor {// https://sta
         System.out.println(">>> requestURI= " + requestURI);
 
         // check permission
-        String email = SecurityUtil.getCurrentUserLogin().isPresent() == true
-                ? SecurityUtil.getCurrentUserLogin().get()
-                : "";
+        String email = this.currentUserContext.getEmail();
         if (email != null && !email.isEmpty()) {
-            User user = this.userService.handleGetUserByUsername(email);
-            if (user != null) {
-                Role role = user.getRole();
-                if (role != null) {
-                    List<Permission> permissions = role.getPermissions();
-                    boolean isAllow = permissions.stream().anyMatch(item -> item.getApiPath().equals(path)
-                            && item.getMethod().equals(httpMethod));
-
-                    if (isAllow == false) {
-                        throw new PermissionException("Bạn không có quyền truy cập endpoint này.");
-                    }
-                } else {
-                    throw new PermissionException("Bạn không có quyền truy cập endpoint này.");
-                }
+            // role luôn lấy từ DB (cache email -> role, TTL ngắn), không tin claim role_id trong token
+            RolePermissionCache.UserAuth auth = this.rolePermissionCache.getUserAuth(email);
+            if (auth == null || auth.roleId() == RolePermissionCache.NO_ROLE) {
+                // user đã bị xóa / không có role
+                throw new PermissionException("Bạn không có quyền truy cập endpoint này.");
+            }
+            // role_version trong token chỉ dùng khi token được phát hành cho đúng role + epoch hiện tại
+            long version = 0;
+            Jwt jwt = currentJwt();
+            if (jwt != null && this.isCurrent(jwt, auth)) {
+                version = ((Number) jwt.getClaim(SecurityUtil.ROLE_VERSION_CLAIM)).longValue();
+            }
+            if (!this.isAllowed(auth.roleId(), version, handler, httpMethod, path)) {
+                throw new PermissionException("Bạn không có quyền truy cập endpoint này.");
             }
         }
 
         return true;
     }
 
+    // handler -> route id (số nguyên nhỏ) -> test bit trong bảng quyền của role;
+    // route ngoài danh mục thì so chuỗi "METHOD apiPath" như trước
+    private boolean isAllowed(long roleId, long version, Object handler, String httpMethod, String path) {
+        int routeId = this.permissionCatalogService.routeId(handler, httpMethod, path);
+        if (routeId >= 0) {
+            return this.rolePermissionCache.isAllowed(roleId, version, routeId);
+        }
+        return this.rolePermissionCache.isAllowed(roleId, version, httpMethod, path);
+    }
+
+    private static Jwt currentJwt() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof Jwt jwt ? jwt : null;
+    }
+
+    // token phát hành trước khi role của user đổi (auth_epoch trong DB đã tăng) => không tin
+    private boolean isCurrent(Jwt jwt, RolePermissionCache.UserAuth auth) {
+        return jwt.getClaim(SecurityUtil.AUTH_EPOCH_CLAIM) instanceof Number epoch
+                && epoch.longValue() == auth.authEpoch()
+                && jwt.getClaim(SecurityUtil.ROLE_ID_CLAIM) instanceof Number roleId
+                && roleId.longValue() == auth.roleId()
+                && jwt.getClaim(SecurityUtil.ROLE_VERSION_CLAIM) instanceof Number;
+    }
+
 }
\ No newline at end of file
@@ -18,10 +18,14 @@ public class PermissionInterceptorConfiguration implements WebMvcConfigurer {//
         String[] whiteList = {
                 "/", "/api/v1/auth/**", "/storage/**",
                 "/api/v1/companies/**", "/api/v1/jobs/**", "/api/v1/skills/**", "/api/v1/files",
+                "/api/v1/files/stream/*",
                 "/api/v1/resumes/**",
                 "/api/v1/subscribers/**"
         };
         registry.addInterceptor(getPermissionInterceptor())
                 .excludePathPatterns(whiteList);
+        // export nằm trong /jobs/**, /resumes/** nhưng vẫn phải có permission
+        registry.addInterceptor(getPermissionInterceptor())
+                .addPathPatterns("/api/v1/jobs/export", "/api/v1/resumes/export");
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package vn.hoangtung.jobfind.config;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Transaction readOnly có thể đọc từ replica đang trễ: nếu để Hibernate ghi kết
+ * quả vào second-level cache (Company, Skill, Role, query cache...), dữ liệu cũ
+ * sẽ được findById trên primary trả về cho tới khi hết TTL. Vì vậy session của
+ * transaction readOnly chỉ đọc L2 (CacheMode.GET), không bao giờ ghi vào L2.
+ */
+public class ReplicaAwareJpaTransactionManager extends JpaTransactionManager {
+
+    public ReplicaAwareJpaTransactionManager(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        if (definition.isReadOnly()) {
+            Session session = this.currentSession();
+            if (session != null) {
+                session.setCacheMode(CacheMode.GET);
+            }
+        }
+    }
+
+    // open-in-view dùng lại EntityManager cho transaction sau => trả lại mode mặc định
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        Session session = this.currentSession();
+        if (session != null && session.isOpen() && session.getCacheMode() == CacheMode.GET) {
+            session.setCacheMode(CacheMode.NORMAL);
+        }
+        super.doCleanupAfterCompletion(transaction);
+    }
+
+    private Session currentSession() {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager
+                .getResource(this.obtainEntityManagerFactory());
+        return holder != null ? holder.getEntityManager().unwrap(Session.class) : null;
+    }
+}
@@ -0,0 +1,67 @@
+package vn.hoangtung.jobfind.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Định kỳ đọc độ trễ replication của replica (SHOW REPLICA STATUS). Khi replica
+ * trễ hơn max-lag-seconds, không trả lời được, hoặc replication dừng, các
+ * transaction readOnly quay về primary cho tới lần kiểm tra sau.
+ */
+public class ReplicaLagMonitor {
+
+    // -1: không đọc được / replication dừng
+    private final AtomicLong lagSeconds = new AtomicLong(0);
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxLagSeconds;
+    private volatile boolean usable = true;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, long maxLagSeconds, MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout(2);
+        this.maxLagSeconds = maxLagSeconds;
+        meterRegistry.gauge("datasource.replica.lag.seconds", this.lagSeconds);
+        meterRegistry.gauge("datasource.replica.usable", this, m -> m.usable ? 1 : 0);
+    }
+
+    public boolean isReplicaUsable() {
+        return this.usable;
+    }
+
+    @Scheduled(fixedDelayString = "${hoangtung.datasource.replica.lag-check-interval-ms:5000}")
+    public void check() {
+        long lag;
+        try {
+            lag = this.readLagSeconds();
+        } catch (RuntimeException e) {
+            System.out.println(">>> REPLICA: kiểm tra độ trễ lỗi: " + e.getMessage());
+            lag = -1;
+        }
+        this.lagSeconds.set(lag);
+        boolean nowUsable = lag >= 0 && lag <= this.maxLagSeconds;
+        if (nowUsable != this.usable) {
+            System.out.println(">>> REPLICA: " + (nowUsable ? "dùng lại replica" : "chuyển đọc về primary")
+                    + " (lag=" + lag + "s)");
+        }
+        this.usable = nowUsable;
+    }
+
+    // Seconds_Behind_Source; -1 khi replication dừng
+    protected long readLagSeconds() {
+        List<Map<String, Object>> rows = this.replicaJdbcTemplate.queryForList("SHOW REPLICA STATUS");
+        if (rows.isEmpty()) {
+            // không cấu hình replication (vd. dev dùng chung 1 DB): coi như không trễ
+            return 0;
+        }
+        Object seconds = rows.get(0).get("Seconds_Behind_Source");
+        return seconds instanceof Number n ? n.longValue() : -1;
+    }
+}
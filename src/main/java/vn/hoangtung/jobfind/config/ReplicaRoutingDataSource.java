@@ -0,0 +1,31 @@
+package vn.hoangtung.jobfind.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Chọn pool theo transaction hiện tại: @Transactional(readOnly = true) -> replica
+ * (khi replica còn "khỏe" theo ReplicaLagMonitor), còn lại -> primary.
+ * Phải được bọc bởi LazyConnectionDataSourceProxy: cờ readOnly chỉ được set sau
+ * khi transaction manager đã lấy connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor replicaLagMonitor) {
+        this.replicaLagMonitor = replicaLagMonitor;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && this.replicaLagMonitor.isReplicaUsable()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+}
@@ -12,7 +12,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
@@ -24,6 +23,7 @@ import org.springframework.security.web.SecurityFilterChain;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.util.Base64;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import vn.hoangtung.jobfind.util.SecurityUtil;
 
 @Configuration // Đánh dấu đây là một file cấu hình của Spring
@@ -40,11 +40,16 @@ public class SecurityConfig {
      * @Bean: Đăng ký một Bean tên là "passwordEncoder" vào Spring Context.
      *        Bất cứ nơi nào cần @Autowired PasswordEncoder, Spring sẽ cung cấp Bean
      *        này.
+     *        BCrypt chạy trên pool riêng có giới hạn, quá tải thì trả về 429.
      *        * @return Một trình mã hóa mật khẩu sử dụng thuật toán BCrypt.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(); // Sử dụng BCrypt để mã hóa mật khẩu
+    public BoundedPasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${hoangtung.password-hash.threads:4}") int threads,
+            @Value("${hoangtung.password-hash.queue-size:32}") int queueSize) {
+        // Sử dụng BCrypt để mã hóa mật khẩu
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry, threads, queueSize);
     }
 
     /**
@@ -93,6 +98,9 @@ public class SecurityConfig {
                                 // Cho phép request GET đến các tài nguyên công khai (xem công ty, job,
                                 // skill)
                                 .requestMatchers(HttpMethod.GET, "/api/v1/companies/**").permitAll()
+                                // export toàn bộ job chỉ dành cho partner đã đăng nhập (phải đứng trước
+                                // rule /jobs/**)
+                                .requestMatchers(HttpMethod.GET, "/api/v1/jobs/export").authenticated()
                                 .requestMatchers(HttpMethod.GET, "/api/v1/jobs/**").permitAll()
                                 .requestMatchers(HttpMethod.GET, "/api/v1/skills/**").permitAll()
                                 .requestMatchers(HttpMethod.POST, "/api/v1/users").permitAll()
@@ -153,16 +161,18 @@ public class SecurityConfig {
      *        * @return Một trình giải mã JWT (JwtDecoder).
      */
     @Bean
-    public JwtDecoder jwtDecoder() {
+    public CachingJwtDecoder jwtDecoder(
+            MeterRegistry meterRegistry,
+            @Value("${hoangtung.jwt.decoder-cache.max-size:10000}") long cacheMaxSize,
+            @Value("${hoangtung.jwt.decoder-cache.max-ttl-seconds:3600}") long cacheMaxTtlSeconds) {
         // Tạo trình giải mã NimbusJwtDecoder
         NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withSecretKey(
                 getSecretKey()) // Sử dụng khóa bí mật (lấy từ hàm getSecretKey())
                 .macAlgorithm(SecurityUtil.JWT_ALGORITHM) // Chỉ định thuật toán (phải khớp lúc tạo)
                 .build();
 
-        // Trả về một lambda function (implementation của JwtDecoder)
-        // bọc ngoài trình giải mã Nimbus
-        return token -> {
+        // Bọc ngoài trình giải mã Nimbus: log lỗi rồi ném tiếp
+        JwtDecoder loggingDecoder = token -> {
             try {
                 // Thử giải mã token
                 return jwtDecoder.decode(token);
@@ -173,6 +183,9 @@ public class SecurityConfig {
                 throw e;
             }
         };
+
+        // Cache Jwt đã verify: token lặp lại không phải parse + tính HMAC lại
+        return new CachingJwtDecoder(loggingDecoder, meterRegistry, cacheMaxSize, cacheMaxTtlSeconds);
     }
 
     /**
@@ -1,19 +1,177 @@
 package vn.hoangtung.jobfind.config;
 
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.CachingResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.servlet.http.HttpServletRequest;
+import vn.hoangtung.jobfind.service.FileService;
 
 @Configuration
 public class StaticResourcesWebConfiguration implements WebMvcConfigurer {// https://stackoverflow.com/questions/71549614/springfox-type-javax-servlet-http-httpservletrequest-not-present
 
+    // logo công ty là dữ liệu công khai, CDN / proxy dùng chung được
+    private static final String PUBLIC_FOLDER = "company";
+
     @Value("${hoangtung.upload-file.base-uri}")
     private String baseURI;
 
+    @Value("${hoangtung.cache.storage-resource.max-size:10000}")
+    private long resourceCacheMaxSize;
+
+    private final FileService fileService;
+    private final List<CaffeineCache> resourceCaches = new CopyOnWriteArrayList<>();
+
+    public StaticResourcesWebConfiguration(FileService fileService) {
+        this.fileService = fileService;
+    }
+
+    /**
+     * Tên file upload chứa hash nội dung ("<sha>-logo.png") và không bao giờ bị ghi
+     * đè (file kiểu cũ có timestamp trong tên), nên URL /storage/** là bất biến:
+     * cache 1 năm, không cần hỏi lại server. ETag mạnh = sha256 của blob,
+     * If-None-Match trả 304. Chỉ logo công ty được cache public; các folder khác
+     * (CV, ...) là dữ liệu cá nhân nên chỉ browser được cache (private).
+     */
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/storage/" + PUBLIC_FOLDER + "/**")
+                .addResourceLocations(baseURI + PUBLIC_FOLDER + "/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .setEtagGenerator(StaticResourcesWebConfiguration::etag)
+                .resourceChain(false)
+                .addResolver(this.cachingResolver("storage-" + PUBLIC_FOLDER))
+                .addResolver(new StoredFileResourceResolver(PUBLIC_FOLDER + "/"));
+
         registry.addResourceHandler("/storage/**")
-                .addResourceLocations(baseURI);
+                .addResourceLocations(baseURI)
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                .setEtagGenerator(StaticResourcesWebConfiguration::etag)
+                .resourceChain(false)
+                .addResolver(this.cachingResolver("storage"))
+                .addResolver(new StoredFileResourceResolver(""));
+    }
+
+    // thay cho resourceChain(true) (ConcurrentMap không giới hạn); key là path tương
+    // đối theo handler nên mỗi handler 1 cache riêng
+    private CachingResourceResolver cachingResolver(String name) {
+        CaffeineCache cache = new CaffeineCache(name,
+                Caffeine.newBuilder().maximumSize(this.resourceCacheMaxSize).build());
+        this.resourceCaches.add(cache);
+        return new CachingResourceResolver(cache);
+    }
+
+    /**
+     * Bỏ mọi resource đã resolve. Gọi sau khi migrate file kiểu cũ sang blob store:
+     * cache đang giữ FileSystemResource trỏ tới <folder>/<fileName> đã bị xóa.
+     */
+    public void clearResourceCaches() {
+        this.resourceCaches.forEach(CaffeineCache::clear);
+    }
+
+    private static String etag(Resource resource) {
+        return resource instanceof StoredFileResource stored ? stored.etag() : null;
+    }
+
+    // file mới nằm trong blob store (tra bảng stored_files), file cũ vẫn ở <folder>/<fileName>
+    private class StoredFileResourceResolver extends PathResourceResolver {
+        // requestPath tính từ pattern của handler => thêm lại folder đã nằm trong pattern
+        private final String pathPrefix;
+
+        StoredFileResourceResolver(String pathPrefix) {
+            this.pathPrefix = pathPrefix;
+        }
+
+        @Override
+        protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+                List<? extends Resource> locations, ResourceResolverChain chain) {
+            try {
+                FileService.FileInfo info = fileService.findStoredFile(this.pathPrefix + requestPath);
+                if (info != null && Files.isRegularFile(info.path())) {
+                    String fileName = requestPath.substring(requestPath.lastIndexOf('/') + 1);
+                    // bản .gz tạo sẵn lúc upload (chỉ với loại nén được)
+                    Path gzip = info.path().resolveSibling(info.path().getFileName() + FileService.GZIP_SUFFIX);
+                    if (acceptsGzip(request) && Files.isRegularFile(gzip)) {
+                        return new StoredFileResource(gzip, info, fileName, true);
+                    }
+                    return new StoredFileResource(info.path(), info, fileName, false);
+                }
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException(e);
+            }
+            return super.resolveResourceInternal(request, requestPath, locations, chain);
+        }
+
+        private static boolean acceptsGzip(HttpServletRequest request) {
+            String acceptEncoding = request != null ? request.getHeader(HttpHeaders.ACCEPT_ENCODING) : null;
+            return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        }
+    }
+
+    /**
+     * File trong blob store: tên / size / thời điểm tạo lấy từ bảng metadata (blob
+     * không có đuôi file nên getFilename trả tên logic để đoán Content-Type).
+     */
+    private static class StoredFileResource extends FileSystemResource implements HttpResource {
+        private final FileService.FileInfo info;
+        private final String fileName;
+        private final boolean gzip;
+
+        StoredFileResource(Path path, FileService.FileInfo info, String fileName, boolean gzip) {
+            super(path);
+            this.info = info;
+            this.fileName = fileName;
+            this.gzip = gzip;
+        }
+
+        // bản nén là 1 representation khác => ETag khác
+        String etag() {
+            return this.gzip ? this.info.etag().replace("\"", "") + "-gz" : this.info.etag();
+        }
+
+        @Override
+        public String getFilename() {
+            return this.fileName;
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return this.gzip ? super.contentLength() : this.info.size();
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return this.info.lastModified() > 0 ? this.info.lastModified() : super.lastModified();
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (this.gzip) {
+                headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return headers;
+        }
     }
-}
\ No newline at end of file
+}
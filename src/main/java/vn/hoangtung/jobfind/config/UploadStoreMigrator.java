@@ -0,0 +1,47 @@
+package vn.hoangtung.jobfind.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import vn.hoangtung.jobfind.service.FileService;
+
+/**
+ * Chuyển các file upload kiểu cũ (<folder>/<fileName>) sang blob store khi khởi
+ * động. Chỉ chạy khi bật hoangtung.upload-file.migrate-legacy=true; chạy lại
+ * nhiều lần không sao (file đã chuyển không còn ở chỗ cũ). Runner chạy khi server
+ * đã nhận request, nên xong thì xóa cache resolver của /storage/** (có thể đang
+ * giữ đường dẫn file cũ).
+ */
+@Component
+public class UploadStoreMigrator implements CommandLineRunner {
+
+    private final FileService fileService;
+    private final StaticResourcesWebConfiguration staticResourcesWebConfiguration;
+
+    @Value("${hoangtung.upload-file.migrate-legacy:false}")
+    private boolean migrateLegacy;
+
+    public UploadStoreMigrator(FileService fileService,
+            StaticResourcesWebConfiguration staticResourcesWebConfiguration) {
+        this.fileService = fileService;
+        this.staticResourcesWebConfiguration = staticResourcesWebConfiguration;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (!this.migrateLegacy) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int migrated;
+        try {
+            migrated = this.fileService.migrateLegacyFiles();
+        } finally {
+            // dừng giữa chừng thì phần đã chuyển cũng đã bị xóa khỏi chỗ cũ
+            this.staticResourcesWebConfiguration.clearResourceCaches();
+        }
+        System.out.println(">>> UPLOAD MIGRATION DONE: " + migrated + " files in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -38,10 +38,27 @@ public class UserDetailsCustom implements UserDetailsService {
         // - username: định danh duy nhất (dùng email)
         // - password: mật khẩu đã được mã hóa
         // - authorities: danh sách các quyền của người dùng
-        return new User(
-                user.getEmail(),
-                user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")) // Hard-code quyền là ROLE_USER
-        );
+        return new LoginUser(user);
+    }
+
+    /**
+     * Principal sau khi login: giữ luôn entity User đã load ở trên, để
+     * AuthController.login không phải query user lần nữa.
+     */
+    public static class LoginUser extends User {
+        private final transient vn.hoangtung.jobfind.domain.User user;
+
+        public LoginUser(vn.hoangtung.jobfind.domain.User user) {
+            super(
+                    user.getEmail(),
+                    user.getPassword(),
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")) // Hard-code quyền là ROLE_USER
+            );
+            this.user = user;
+        }
+
+        public vn.hoangtung.jobfind.domain.User getUser() {
+            return this.user;
+        }
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package vn.hoangtung.jobfind.controller;
 
+import java.util.UUID;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -8,19 +10,28 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import vn.hoangtung.jobfind.config.CachingJwtDecoder;
+import vn.hoangtung.jobfind.config.UserDetailsCustom;
 import vn.hoangtung.jobfind.domain.User;
 import vn.hoangtung.jobfind.domain.response.ResCreateUserDTO;
 import vn.hoangtung.jobfind.domain.response.ResLoginDTO;
 import vn.hoangtung.jobfind.domain.request.ReqLoginDTO;
+import vn.hoangtung.jobfind.service.AccountRoleCache;
+import vn.hoangtung.jobfind.service.CurrentUserContext;
+import vn.hoangtung.jobfind.service.LoginThrottleService;
+import vn.hoangtung.jobfind.service.RefreshTokenService;
 import vn.hoangtung.jobfind.service.UserService;
 import vn.hoangtung.jobfind.util.SecurityUtil;
 import vn.hoangtung.jobfind.util.annotation.ApiMessage;
@@ -46,6 +57,21 @@ public class AuthController {
         // Service để mã hóa mật khẩu (được định nghĩa Bean trong SecurityConfig).
         private final PasswordEncoder passwordEncoder;
 
+        // Cache Jwt đã verify, cần xóa access token khỏi cache khi logout
+        private final CachingJwtDecoder jwtDecoder;
+
+        // Kho refresh token (bảng refresh_tokens)
+        private final RefreshTokenService refreshTokenService;
+
+        // Đếm số lần đăng nhập sai theo tài khoản / IP
+        private final LoginThrottleService loginThrottleService;
+
+        // User đang đăng nhập của request hiện tại
+        private final CurrentUserContext currentUserContext;
+
+        // Phần role của payload login (tên role + permissions) cache theo role version
+        private final AccountRoleCache accountRoleCache;
+
         // Tiêm giá trị thời gian hết hạn của Refresh Token từ application.properties
         @Value("${hoangtung.jwt.refresh-token-validity-in-seconds}")
         private long refreshTokenExpiration;
@@ -55,11 +81,21 @@ public class AuthController {
                         AuthenticationManagerBuilder authenticationManagerBuilder,
                         SecurityUtil securityUtil,
                         UserService userService,
-                        PasswordEncoder passwordEncoder) {
+                        PasswordEncoder passwordEncoder,
+                        CachingJwtDecoder jwtDecoder,
+                        RefreshTokenService refreshTokenService,
+                        LoginThrottleService loginThrottleService,
+                        CurrentUserContext currentUserContext,
+                        AccountRoleCache accountRoleCache) {
                 this.authenticationManagerBuilder = authenticationManagerBuilder;
                 this.securityUtil = securityUtil;
                 this.userService = userService;
                 this.passwordEncoder = passwordEncoder;
+                this.jwtDecoder = jwtDecoder;
+                this.refreshTokenService = refreshTokenService;
+                this.loginThrottleService = loginThrottleService;
+                this.currentUserContext = currentUserContext;
+                this.accountRoleCache = accountRoleCache;
         }
 
         /**
@@ -70,7 +106,13 @@ public class AuthController {
          *         cookie.
          */
         @PostMapping("/auth/login")
-        public ResponseEntity<ResLoginDTO> login(@Valid @RequestBody ReqLoginDTO loginDto) {
+        public ResponseEntity<ResLoginDTO> login(@Valid @RequestBody ReqLoginDTO loginDto,
+                        @RequestHeader(name = HttpHeaders.USER_AGENT, required = false) String userAgent,
+                        HttpServletRequest request) {
+                // 0. Chặn sớm tài khoản / IP đăng nhập sai quá nhiều (429), trước khi chạy BCrypt
+                String ip = request.getRemoteAddr();
+                this.loginThrottleService.check(loginDto.getUsername(), ip);
+
                 // 1. Tạo đối tượng 'Token xác thực' từ username và password người dùng gửi lên.
                 // Đây là đối tượng 'chưa được xác thực'.
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
@@ -82,8 +124,15 @@ public class AuthController {
                 // và dùng `PasswordEncoder` để so sánh mật khẩu.
                 // Nếu sai, nó sẽ ném ra AuthenticationException (được xử lý bởi
                 // GlobalException).
-                Authentication authentication = authenticationManagerBuilder.getObject()
-                                .authenticate(authenticationToken);
+                Authentication authentication;
+                try {
+                        authentication = authenticationManagerBuilder.getObject()
+                                        .authenticate(authenticationToken);
+                } catch (AuthenticationException e) {
+                        this.loginThrottleService.recordFailure(loginDto.getUsername(), ip);
+                        throw e;
+                }
+                this.loginThrottleService.reset(loginDto.getUsername());
 
                 // 3. Nếu xác thực thành công, lưu thông tin xác thực vào SecurityContext.
                 // Điều này làm cho người dùng được "đăng nhập" trong suốt quá trình xử lý
@@ -91,17 +140,15 @@ public class AuthController {
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
                 // 4. Chuẩn bị đối tượng DTO để trả về
+                // User đã được load 1 lần trong UserDetailsCustom lúc xác thực, không query lại
                 ResLoginDTO res = new ResLoginDTO();
-                User currentUserDB = this.userService.handleGetUserByUsername(loginDto.getUsername());
+                User currentUserDB = authentication.getPrincipal() instanceof UserDetailsCustom.LoginUser loginUser
+                                ? loginUser.getUser()
+                                : this.userService.handleGetUserByUsername(loginDto.getUsername());
 
                 // Lấy thông tin chi tiết của user để đưa vào response
                 if (currentUserDB != null) {
-                        ResLoginDTO.UserLogin userLogin = new ResLoginDTO.UserLogin(
-                                        currentUserDB.getId(),
-                                        currentUserDB.getEmail(),
-                                        currentUserDB.getName(),
-                                        currentUserDB.getRole());
-                        res.setUser(userLogin);
+                        res.setUser(this.toUserLogin(currentUserDB));
                 }
 
                 // 5. Tạo Access Token (Token truy cập, thời hạn ngắn)
@@ -109,11 +156,12 @@ public class AuthController {
                 String access_token = this.securityUtil.createAccessToken(authentication.getName(), res);
                 res.setAccessToken(access_token);
 
-                // 6. Tạo Refresh Token (Token làm mới, thời hạn dài)
-                String refresh_token = this.securityUtil.createRefreshToken(loginDto.getUsername(), res);
+                // 6. Tạo Refresh Token (Token làm mới, thời hạn dài) cho một phiên mới
+                String sessionId = UUID.randomUUID().toString();
+                String refresh_token = this.securityUtil.createRefreshToken(loginDto.getUsername(), res, sessionId);
 
-                // 7. Cập nhật (lưu) Refresh Token vào cơ sở dữ liệu cho user này
-                this.userService.updateUserToken(refresh_token, loginDto.getUsername());
+                // 7. Lưu hash của Refresh Token vào kho refresh token (mỗi thiết bị một phiên)
+                this.refreshTokenService.create(refresh_token, loginDto.getUsername(), sessionId, userAgent);
 
                 // 8. Tạo cookie để chứa Refresh Token.
                 ResponseCookie resCookies = ResponseCookie
@@ -142,11 +190,8 @@ public class AuthController {
         public ResponseEntity<ResLoginDTO.UserGetAccount> getAccount() {
                 // Lấy email của người dùng đã được xác thực từ SecurityContext
                 // (Spring Security tự động điền vào đây sau khi giải mã Access Token)
-                String email = SecurityUtil.getCurrentUserLogin().isPresent() ? SecurityUtil.getCurrentUserLogin().get()
-                                : "";
-
-                // Lấy thông tin đầy đủ từ DB
-                User currentUserDB = this.userService.handleGetUserByUsername(email);
+                // Lấy thông tin đầy đủ từ DB (qua context của request, load tối đa 1 lần)
+                User currentUserDB = this.currentUserContext.getUser();
                 ResLoginDTO.UserLogin userLogin = new ResLoginDTO.UserLogin();
                 ResLoginDTO.UserGetAccount userGetAccount = new ResLoginDTO.UserGetAccount();
 
@@ -155,7 +200,8 @@ public class AuthController {
                         userLogin.setId(currentUserDB.getId());
                         userLogin.setEmail(currentUserDB.getEmail());
                         userLogin.setName(currentUserDB.getName());
-                        // userLogin.setRole(currentUserDB.getRole()); // Bạn có thể thêm Role nếu cần
+                        // role + permissions lấy từ cache theo role version (SPA reload không tốn query)
+                        userLogin.setRole(this.accountRoleCache.get(currentUserDB.getRole()));
                         userGetAccount.setUser(userLogin);
                 }
 
@@ -190,8 +236,8 @@ public class AuthController {
                 // 2. Kiểm tra xem Refresh Token này có tồn tại trong DB VÀ khớp với email không
                 // Đây là bước bảo mật quan trọng, đảm bảo token chưa bị thu hồi (do logout
                 // hoặc đổi mật khẩu)
-                User currentUser = this.userService.getUserByRefreshTokenAndEmail(refresh_token, email);
-                if (currentUser == null) {
+                // Tra theo SHA-256 của token (index unique), có cache phía trước
+                if (!this.refreshTokenService.isActive(refresh_token, email)) {
                         // Nếu không tìm thấy, có nghĩa là token đã bị vô hiệu hóa
                         throw new IdInvalidException("Refresh Token không hợp lệ");
                 }
@@ -201,33 +247,26 @@ public class AuthController {
 
                 // Lấy thông tin user (giống hệt /login)
                 User currentUserDB = this.userService.handleGetUserByUsername(email);
-                if (currentUserDB != null) {
-                        ResLoginDTO.UserLogin userLogin = new ResLoginDTO.UserLogin(
-                                        currentUserDB.getId(),
-                                        currentUserDB.getEmail(),
-                                        currentUserDB.getName(),
-                                        currentUserDB.getRole());
-                        res.setUser(userLogin);
+                if (currentUserDB == null) {
+                        throw new IdInvalidException("Refresh Token không hợp lệ");
                 }
+                res.setUser(this.toUserLogin(currentUserDB));
 
                 // 4. Tạo Access Token mới
                 String access_token = this.securityUtil.createAccessToken(email, res);
                 res.setAccessToken(access_token);
 
                 // 5. Tạo Refresh Token mới
-                String newRefresh_token = this.securityUtil.createRefreshToken(email, res);
-
-                // 6. Cập nhật Refresh Token MỚI vào DB
-                // LƯU Ý: Dòng code gốc `this.userService.updateUserToken(refresh_token,
-                // email);`
-                // có vẻ là một LỖI.
-                // Nó đang lưu lại token CŨ. Đúng ra phải là lưu token MỚI.
-                // Dòng đúng phải là:
-                this.userService.updateUserToken(newRefresh_token, email);
-                // (Nếu bạn vẫn dùng `this.userService.updateUserToken(refresh_token, email);`
-                // thì
-                // token cũ vẫn hợp lệ,
-                // không đạt được mục đích "rotation" - xoay vòng token)
+                // (giữ nguyên session id của phiên)
+                String newRefresh_token = this.securityUtil.createRefreshToken(email, res,
+                                decodedToken.getClaimAsString(SecurityUtil.SESSION_ID_CLAIM));
+
+                // 6. Thay hash token CŨ bằng token MỚI (Token Rotation) bằng 1 câu UPDATE.
+                // Token cũ hết hiệu lực ngay; nếu 2 request refresh chạy đồng thời thì chỉ 1
+                // request thắng.
+                if (!this.refreshTokenService.rotate(refresh_token, newRefresh_token, email)) {
+                        throw new IdInvalidException("Refresh Token không hợp lệ");
+                }
 
                 // 7. Tạo cookie MỚI cho Refresh Token MỚI
                 ResponseCookie resCookies = ResponseCookie
@@ -252,7 +291,9 @@ public class AuthController {
          */
         @PostMapping("/auth/logout")
         @ApiMessage("Logout User")
-        public ResponseEntity<Void> logout() throws IdInvalidException { // Thay vì ResLoginDTO, trả về Void
+        public ResponseEntity<Void> logout(
+                        @CookieValue(name = "refresh_token", required = false) String refresh_token)
+                        throws IdInvalidException { // Thay vì ResLoginDTO, trả về Void
                 // Lấy email của user đang đăng nhập (từ Access Token)
                 String email = securityUtil.getCurrentUserLogin().isPresent() ? securityUtil.getCurrentUserLogin().get()
                                 : "";
@@ -265,9 +306,19 @@ public class AuthController {
                         throw new IdInvalidException("Access Token không hợp lệ");
                 }
                 // 1. Vô hiệu hóa Refresh Token:
-                // Xóa (set null) Refresh Token trong DB.
+                // Xóa phiên hiện tại khỏi kho refresh token (các thiết bị khác vẫn đăng nhập).
+                // Không có cookie thì thu hồi mọi phiên của user như trước.
                 // Đây là bước quan trọng nhất của logout.
-                this.userService.updateUserToken(null, email);
+                if (refresh_token != null && !refresh_token.isEmpty()) {
+                        this.refreshTokenService.revoke(refresh_token);
+                } else {
+                        this.refreshTokenService.revokeAll(email);
+                }
+
+                // Bỏ access token hiện tại khỏi cache decoder
+                if (SecurityContextHolder.getContext().getAuthentication().getPrincipal() instanceof Jwt jwt) {
+                        this.jwtDecoder.evict(jwt.getTokenValue());
+                }
 
                 // 2. Xóa Refresh Token ở client:
                 // Tạo một cookie "giả" có tên y hệt, giá trị rỗng và maxAge = 0
@@ -316,4 +367,14 @@ public class AuthController {
                 return ResponseEntity.status(HttpStatus.CREATED)
                                 .body(this.userService.convertToResCreateUserDTO(hoangtung));
         }
+
+        // role (đã eager cùng user) -> payload role dùng chung từ cache, không lazy-load permissions
+        private ResLoginDTO.UserLogin toUserLogin(User user) {
+                return new ResLoginDTO.UserLogin(
+                                user.getId(),
+                                user.getEmail(),
+                                user.getName(),
+                                this.accountRoleCache.get(user.getRole()),
+                                user.getAuthEpoch());
+        }
 }
@@ -21,6 +21,7 @@ import vn.hoangtung.jobfind.domain.Company;
 import vn.hoangtung.jobfind.domain.response.ResultPaginationDTO;
 import vn.hoangtung.jobfind.repository.CompanyRepository;
 import vn.hoangtung.jobfind.service.CompanyService;
+import vn.hoangtung.jobfind.util.error.IdInvalidException;
 
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -52,9 +53,14 @@ public class CompanyController {
     // @ApiMessage("Fetch companies")
     public ResponseEntity<ResultPaginationDTO> getCompany(
             @Filter Specification<Company> spec,
-            Pageable pageable) {
-
-        return ResponseEntity.ok(this.companyService.handleGetCompany(spec, pageable));
+            Pageable pageable,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "filter", required = false) String filter) throws IdInvalidException {
+
+        if (cursor != null) {
+            return ResponseEntity.ok(this.companyService.handleGetCompanyByCursor(spec, pageable, cursor));
+        }
+        return ResponseEntity.ok(this.companyService.handleGetCompany(spec, pageable, filter));
     }
 
     @PutMapping("/companies")
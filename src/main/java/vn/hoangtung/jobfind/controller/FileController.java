@@ -1,25 +1,39 @@
 package vn.hoangtung.jobfind.controller;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import vn.hoangtung.jobfind.domain.response.file.ResUploadFileDTO;
 import vn.hoangtung.jobfind.service.FileService;
 import vn.hoangtung.jobfind.util.annotation.ApiMessage;
@@ -29,11 +43,16 @@ import vn.hoangtung.jobfind.util.error.StorageException;
 @RequestMapping("/api/v1")
 public class FileController {
 
-    @Value("${hoangtung.upload-file.base-uri}")
-    private String baseURI;
+    // request attribute của Tomcat (org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
 
     private final FileService fileService;
 
+    private final ResourceRegionHttpMessageConverter regionConverter = new ResourceRegionHttpMessageConverter();
+
     public FileController(FileService fileService) {
         this.fileService = fileService;
     }
@@ -56,9 +75,6 @@ public class FileController {
             throw new StorageException("Invalid file extension. only allows " + allowedExtensions.toString());
         }
 
-        // create a directory if not exist
-        this.fileService.createDirectory(baseURI + folder);
-
         // store file
         String uploadFile = this.fileService.store(file, folder);
 
@@ -67,30 +83,101 @@ public class FileController {
         return ResponseEntity.ok().body(res);
     }
 
+    // body multipart được đọc tuần tự, không qua MultipartResolver (folder nằm trên path
+    // vì đọc query param của request multipart sẽ khiến Tomcat parse toàn bộ body)
+    @PostMapping("/files/stream/{folder}")
+    @ApiMessage("Upload single file")
+    public ResponseEntity<ResUploadFileDTO> uploadStream(@PathVariable("folder") String folder,
+            HttpServletRequest request) throws URISyntaxException, IOException, StorageException {
+        String uploadFile = this.fileService.storeStream(request, folder);
+        return ResponseEntity.ok().body(new ResUploadFileDTO(uploadFile, Instant.now()));
+    }
+
     @GetMapping("/files")
     @ApiMessage("Download a file")
-    public ResponseEntity<Resource> download(
+    public void download(
             @RequestParam(name = "fileName", required = false) String fileName,
-            @RequestParam(name = "folder", required = false) String folder)
-            throws StorageException, URISyntaxException, FileNotFoundException {
+            @RequestParam(name = "folder", required = false) String folder,
+            HttpServletRequest request,
+            HttpServletResponse response)
+            throws StorageException, URISyntaxException, IOException {
         if (fileName == null || folder == null) {
             throw new StorageException("Missing required params : (fileName or folder) in query params.");
         }
 
-        // check file exist (and not a directory)
-        long fileLength = this.fileService.getFileLength(fileName, folder);
-        if (fileLength == 0) {
-            throw new StorageException("File with name = " + fileName + " not found.");
+        // check file exist (and not a directory): tra bảng metadata, không stat filesystem
+        FileService.FileInfo file = this.fileService.getFile(fileName, folder);
+        Path path = file.path();
+        long fileLength = file.size();
+        long lastModified = file.lastModified();
+        String etag = file.etag();
+        // If-None-Match / If-Modified-Since -> 304; cũng set sẵn header ETag, Last-Modified
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
         }
 
-        // download a file
-        InputStreamResource resource = this.fileService.getResource(fileName, folder);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build().toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // If-Range không khớp (file đã đổi) => trả cả file
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && ifRange != null && !ifRange.equals(etag)) {
+            rangeHeader = null;
+        }
+
+        List<ResourceRegion> regions = List.of();
+        if (rangeHeader != null) {
+            try {
+                // ném IllegalArgumentException nếu range nằm ngoài file / quá nhiều range
+                regions = HttpRange.toResourceRegions(HttpRange.parseRanges(rangeHeader),
+                        new FileSystemResource(path));
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileLength);
+                return;
+            }
+        }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .contentLength(fileLength)
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(resource);
+        if (regions.size() > 1) {
+            // multipart/byteranges: ResourceRegionHttpMessageConverter ghi từng đoạn (như ResourceHttpRequestHandler)
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            this.regionConverter.write(regions, MediaType.parseMediaType(file.contentType()),
+                    new ServletServerHttpResponse(response));
+            return;
+        }
+
+        long start = 0;
+        long end = fileLength - 1;
+        if (regions.size() == 1) {
+            start = regions.get(0).getPosition();
+            end = start + regions.get(0).getCount() - 1;
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileLength);
+        }
+        response.setContentType(file.contentType());
+        response.setContentLengthLong(end - start + 1);
+
+        if (HttpMethod.HEAD.matches(request.getMethod()) || end < start) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat tự gửi file bằng sendfile() sau khi request kết thúc: không copy qua heap
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        // connector không hỗ trợ sendfile: copy bằng FileChannel.transferTo
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, out);
+            }
+        }
     }
 
 }
\ No newline at end of file
@@ -11,28 +11,46 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.util.RawValue;
 import com.turkraft.springfilter.boot.Filter;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
 import jakarta.validation.Valid;
 import vn.hoangtung.jobfind.domain.Job;
 import vn.hoangtung.jobfind.domain.response.ResCreateJobDTO;
 import vn.hoangtung.jobfind.domain.response.ResUpdateJobDTO;
 import vn.hoangtung.jobfind.domain.response.ResultPaginationDTO;
+import vn.hoangtung.jobfind.domain.response.job.ResBulkImportJobDTO;
+import vn.hoangtung.jobfind.service.ExportService;
+import vn.hoangtung.jobfind.service.JobImportService;
 import vn.hoangtung.jobfind.service.JobService;
+import vn.hoangtung.jobfind.util.constant.ExportFormatEnum;
 import vn.hoangtung.jobfind.util.annotation.ApiMessage;
 import vn.hoangtung.jobfind.util.error.IdInvalidException;
+import vn.hoangtung.jobfind.util.error.StorageException;
 
 @RestController
 @RequestMapping("/api/v1")
 public class JobController {
 
     private final JobService jobService;
+    private final ExportService exportService;
+    private final JobImportService jobImportService;
 
-    public JobController(JobService jobService) {
+    public JobController(JobService jobService, ExportService exportService, JobImportService jobImportService) {
         this.jobService = jobService;
+        this.exportService = exportService;
+        this.jobImportService = jobImportService;
     }
 
     @PostMapping("/jobs")
@@ -41,6 +59,25 @@ public class JobController {
         return ResponseEntity.status(HttpStatus.CREATED).body(this.jobService.create(job));
     }
 
+    @PostMapping("/jobs/bulk")
+    @ApiMessage("Bulk import jobs")
+    public ResponseEntity<ResBulkImportJobDTO> bulkImport(@RequestBody List<Job> jobs) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(this.jobImportService.importJobs(jobs));
+    }
+
+    @PostMapping("/jobs/bulk/csv")
+    @ApiMessage("Bulk import jobs from CSV")
+    public ResponseEntity<ResBulkImportJobDTO> bulkImportCsv(
+            @RequestParam(name = "file", required = false) MultipartFile file)
+            throws IOException, IdInvalidException, StorageException {
+        if (file == null || file.isEmpty()) {
+            throw new StorageException("File is empty. Please upload a file.");
+        }
+        try (InputStreamReader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(this.jobImportService.importCsv(reader));
+        }
+    }
+
     @PutMapping("/jobs")
     @ApiMessage("Update a job")
     public ResponseEntity<ResUpdateJobDTO> update(@Valid @RequestBody Job job) throws IdInvalidException {
@@ -69,20 +106,47 @@ public class JobController {
     @ApiMessage("Get job with pagination")
     public ResponseEntity<ResultPaginationDTO> getAllJob(
             @Filter Specification<Job> spec,
-            Pageable pageable) {
+            Pageable pageable,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "filter", required = false) String filter,
+            @RequestParam(name = "facets", defaultValue = "false") boolean facets) throws IdInvalidException {
+
+        // có param cursor => keyset pagination (không COUNT), ngược lại giữ page number
+        if (cursor != null) {
+            return ResponseEntity.ok().body(this.jobService.fetchAllByCursor(spec, pageable, cursor));
+        }
+        return ResponseEntity.ok().body(this.jobService.fetchAll(spec, pageable, filter, facets));
+    }
 
-        return ResponseEntity.ok().body(this.jobService.fetchAll(spec, pageable));
+    @GetMapping("/jobs/export")
+    @ApiMessage("Export jobs")
+    public ResponseEntity<StreamingResponseBody> export(
+            @Filter Specification<Job> spec,
+            @RequestParam(name = "format", defaultValue = "ndjson") String format) throws IdInvalidException {
+        ExportFormatEnum exportFormat = ExportService.parseFormat(format);
+        return ExportService.toResponse("jobs", exportFormat, this.exportService.exportJobs(spec, exportFormat));
+    }
+
+    @GetMapping("/jobs/search")
+    @ApiMessage("Search jobs by keyword")
+    public ResponseEntity<ResultPaginationDTO> search(
+            @RequestParam(name = "q", defaultValue = "") String q,
+            @RequestParam(name = "facets", defaultValue = "false") boolean facets,
+            Pageable pageable) throws IdInvalidException {
+
+        return ResponseEntity.ok().body(this.jobService.search(q, pageable, facets));
     }
 
     @GetMapping("/jobs/{id}")
     @ApiMessage("Get a job by id")
-    public ResponseEntity<Job> getJob(@PathVariable("id") long id) throws IdInvalidException {
-        Optional<Job> currentJob = this.jobService.fetchJobById(id);
-        if (!currentJob.isPresent()) {
+    public ResponseEntity<RawValue> getJob(@PathVariable("id") long id) throws IdInvalidException {
+        // JSON đã serialize sẵn trong cache, ghi thẳng vào field data
+        String currentJob = this.jobService.fetchJobDetailJson(id);
+        if (currentJob == null) {
             throw new IdInvalidException("Job not found");
         }
 
-        return ResponseEntity.ok().body(currentJob.get());
+        return ResponseEntity.ok().body(new RawValue(currentJob));
     }
 
 }
\ No newline at end of file
@@ -15,7 +15,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.turkraft.springfilter.boot.Filter;
 import com.turkraft.springfilter.builder.FilterBuilder;
@@ -30,10 +32,11 @@ import vn.hoangtung.jobfind.domain.response.ResultPaginationDTO;
 import vn.hoangtung.jobfind.domain.response.resume.ResCreateResumeDTO;
 import vn.hoangtung.jobfind.domain.response.resume.ResFetchResumeDTO;
 import vn.hoangtung.jobfind.domain.response.resume.ResUpdateResumeDTO;
+import vn.hoangtung.jobfind.service.CurrentUserContext;
+import vn.hoangtung.jobfind.service.ExportService;
 import vn.hoangtung.jobfind.service.ResumeService;
-import vn.hoangtung.jobfind.service.UserService;
-import vn.hoangtung.jobfind.util.SecurityUtil;
 import vn.hoangtung.jobfind.util.annotation.ApiMessage;
+import vn.hoangtung.jobfind.util.constant.ExportFormatEnum;
 import vn.hoangtung.jobfind.util.error.IdInvalidException;
 
 @RestController
@@ -41,19 +44,22 @@ import vn.hoangtung.jobfind.util.error.IdInvalidException;
 public class ResumeController {
 
     private final ResumeService resumeService;
-    private final UserService userService;
+    private final CurrentUserContext currentUserContext;
     private final FilterBuilder filterBuilder;
     private final FilterSpecificationConverter filterSpecificationConverter;
+    private final ExportService exportService;
 
     public ResumeController(
             ResumeService resumeService,
-            UserService userService,
+            CurrentUserContext currentUserContext,
             FilterBuilder filterBuilder,
-            FilterSpecificationConverter filterSpecificationConverter) {
+            FilterSpecificationConverter filterSpecificationConverter,
+            ExportService exportService) {
         this.resumeService = resumeService;
-        this.userService = userService;
+        this.currentUserContext = currentUserContext;
         this.filterBuilder = filterBuilder;
         this.filterSpecificationConverter = filterSpecificationConverter;
+        this.exportService = exportService;
     }
 
     @PostMapping("/resumes")
@@ -109,13 +115,34 @@ public class ResumeController {
     @ApiMessage("Fetch all resume with paginate")
     public ResponseEntity<ResultPaginationDTO> fetchAll(
             @Filter Specification<Resume> spec,
-            Pageable pageable) {
+            Pageable pageable,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "filter", required = false) String filter) throws IdInvalidException {
 
+        Specification<Resume> finalSpec = this.buildResumeSpec(spec);
+
+        if (cursor != null) {
+            return ResponseEntity.ok().body(this.resumeService.fetchAllResumeByCursor(finalSpec, pageable, cursor));
+        }
+        return ResponseEntity.ok().body(this.resumeService.fetchAllResume(finalSpec, pageable, filter));
+
+    }
+
+    @GetMapping("/resumes/export")
+    @ApiMessage("Export resumes")
+    public ResponseEntity<StreamingResponseBody> export(
+            @Filter Specification<Resume> spec,
+            @RequestParam(name = "format", defaultValue = "ndjson") String format) throws IdInvalidException {
+        ExportFormatEnum exportFormat = ExportService.parseFormat(format);
+        return ExportService.toResponse("resumes", exportFormat,
+                this.exportService.exportResumes(this.buildResumeSpec(spec), exportFormat));
+    }
+
+    // giới hạn resume theo job của company (dùng chung cho list và export)
+    private Specification<Resume> buildResumeSpec(Specification<Resume> spec) {
         List<Long> arrJobIds = null;
-        String email = SecurityUtil.getCurrentUserLogin().isPresent() == true
-                ? SecurityUtil.getCurrentUserLogin().get()
-                : "";
-        User currentUser = this.userService.handleGetUserByUsername(email);
+        // user của request, load tối đa 1 lần
+        User currentUser = this.currentUserContext.getUser();
         if (currentUser != null) {
             // Kiểm tra nếu user là admin
             // boolean isAdmin = currentUser.getRole().getId() == 1;
@@ -137,10 +164,7 @@ public class ResumeController {
         Specification<Resume> jobInSpec = filterSpecificationConverter.convert(filterBuilder.field("job")
                 .in(filterBuilder.input(arrJobIds)).get());
 
-        Specification<Resume> finalSpec = jobInSpec.and(spec);
-
-        return ResponseEntity.ok().body(this.resumeService.fetchAllResume(finalSpec, pageable));
-
+        return jobInSpec.and(spec);
     }
 
     @PostMapping("/resumes/by-user")
@@ -58,8 +58,14 @@ public class UserController {
     @ApiMessage("fetch all user")
     public ResponseEntity<ResultPaginationDTO> getAllUser(
             @Filter Specification<User> spec,
-            Pageable pageable) {
-        return ResponseEntity.status(HttpStatus.OK).body(this.userService.fetchAllUser(spec, pageable));
+            Pageable pageable,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "filter", required = false) String filter) throws IdInvalidException {
+        if (cursor != null) {
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(this.userService.fetchAllUserByCursor(spec, pageable, cursor));
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(this.userService.fetchAllUser(spec, pageable, filter));
     }
 
     @GetMapping("/users/{id}")
@@ -0,0 +1,40 @@
+package vn.hoangtung.jobfind.domain;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Nội dung file lưu 1 lần trên đĩa theo SHA-256 (blobs/ab/cd/<sha256>).
+ * Bảng này cũng là metadata của file (size, checksum, content type, thời điểm tạo):
+ * download đọc ở đây thay vì stat filesystem. refCount = số tên file (StoredFile)
+ * đang trỏ tới blob này.
+ * Hiện chưa có API xóa file nên refCount chỉ tăng, chưa có đường giảm / xóa blob.
+ * Cố ý để sau: khi thêm xóa tên file thì giảm refCount cùng transaction, và 1 job
+ * dọn riêng xóa blob có refCount = 0 (không xóa ngay, tránh đua với upload cùng
+ * nội dung đang publish).
+ */
+@Entity
+@Table(name = "file_blobs")
+@Getter
+@Setter
+public class FileBlob {
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    private long size;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "ref_count", nullable = false)
+    private long refCount;
+
+    private Instant createdAt;
+}
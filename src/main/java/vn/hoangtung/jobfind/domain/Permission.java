@@ -3,6 +3,9 @@ package vn.hoangtung.jobfind.domain;
 import java.time.Instant;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Entity;
@@ -21,6 +24,7 @@ import lombok.Setter;
 import vn.hoangtung.jobfind.util.SecurityUtil;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "permissions")
 @Getter
 @Setter
@@ -0,0 +1,56 @@
+package vn.hoangtung.jobfind.domain;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Một phiên đăng nhập (refresh token) của user. Chỉ lưu SHA-256 của token, tra
+ * theo index unique trên token_hash; mỗi user có thể có nhiều phiên song song.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "uk_refresh_tokens_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_tokens_email", columnList = "email"),
+        @Index(name = "idx_refresh_tokens_expires", columnList = "expires_at")
+})
+@Getter
+@Setter
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "token_hash", length = 64, nullable = false)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(name = "session_id", length = 36, nullable = false)
+    private String sessionId;
+
+    // User-Agent lúc đăng nhập, để user nhận ra thiết bị
+    private String device;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    private Instant createdAt;
+    private Instant lastUsedAt;
+
+    @PrePersist
+    public void handleBeforeCreate() {
+        this.createdAt = Instant.now();
+        this.lastUsedAt = this.createdAt;
+    }
+}
@@ -3,6 +3,10 @@ package vn.hoangtung.jobfind.domain;
 import java.time.Instant;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
@@ -24,6 +28,7 @@ import lombok.Setter;
 import vn.hoangtung.jobfind.util.SecurityUtil;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "roles")
 @Getter
 @Setter
@@ -42,6 +47,12 @@ public class Role {
     private String createdBy;
     private String updatedBy;
 
+    // tăng mỗi khi tập permission của role thay đổi, được nhúng vào access token
+    @ColumnDefault("0")
+    @JsonIgnore
+    private long permissionVersion;
+
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @ManyToMany(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = { "roles" })
     @JoinTable(name = "permission_role", joinColumns = @JoinColumn(name = "role_id"), inverseJoinColumns = @JoinColumn(name = "permission_id"))
@@ -0,0 +1,41 @@
+package vn.hoangtung.jobfind.domain;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Tên file mà client nhìn thấy (folder + fileName, vd. resume.url) trỏ tới blob
+ * chứa nội dung. Nhiều tên có thể dùng chung 1 blob.
+ */
+@Entity
+@Table(name = "stored_files", indexes = {
+        @Index(name = "uk_stored_files_name", columnList = "folder, file_name", unique = true),
+        @Index(name = "idx_stored_files_sha", columnList = "sha256")
+})
+@Getter
+@Setter
+public class StoredFile {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(nullable = false)
+    private String folder;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(length = 64, nullable = false)
+    private String sha256;
+
+    private Instant createdAt;
+}
@@ -1,6 +1,5 @@
 package vn.hoangtung.jobfind.domain;
 
-import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -15,6 +14,8 @@ import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
+
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Getter;
 import lombok.Setter;
 import vn.hoangtung.jobfind.util.SecurityUtil;
@@ -50,9 +51,6 @@ public class User {
 
     private String address;
 
-    @Column(columnDefinition = "MEDIUMTEXT")
-    private String refreshToken;
-
     private Instant createdAt;
     private Instant updatedAt;
     private String createdBy;
@@ -66,6 +64,11 @@ public class User {
     @JoinColumn(name = "role_id")
     private Role role;
 
+    // tăng khi role của user đổi: access token mang epoch cũ không còn được tin claim role
+    @ColumnDefault("0")
+    @JsonIgnore
+    private long authEpoch;
+
     @ManyToOne
     @JoinColumn(name = "company_id")
     private Company company;
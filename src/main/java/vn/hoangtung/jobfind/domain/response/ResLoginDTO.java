@@ -1,12 +1,14 @@
 package vn.hoangtung.jobfind.domain.response;
 
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import vn.hoangtung.jobfind.domain.Role;
 
 @Getter
 @Setter
@@ -24,7 +26,30 @@ public class ResLoginDTO {
         private long id;
         private String email;
         private String name;
-        private Role role;
+        private RoleLogin role;
+        @JsonIgnore
+        private long authEpoch;
+    }
+
+    // phần bất biến theo (role id, version): dùng chung cho mọi user cùng role
+    @Getter
+    @AllArgsConstructor
+    public static class RoleLogin {
+        private long id;
+        private String name;
+        @JsonIgnore
+        private long version;
+        private List<PermissionLogin> permissions;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PermissionLogin {
+        private long id;
+        private String name;
+        private String apiPath;
+        private String method;
+        private String module;
     }
 
     @Getter
@@ -1,14 +1,21 @@
 package vn.hoangtung.jobfind.domain.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Getter;
 import lombok.Setter;
 
 @Getter
 @Setter
 public class ResultPaginationDTO {
-    private Meta meta;
+    // Meta (page number) hoặc CursorMeta (keyset)
+    private Object meta;
     private Object result;
 
+    // facet counts, chỉ có khi client yêu cầu (?facets=true)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Object facets;
+
     @Getter
     @Setter
     public static class Meta {
@@ -16,6 +23,17 @@ public class ResultPaginationDTO {
         private int pageSize;
         private int pages;
         private long total;
+        // true khi total lấy từ cache / thống kê bảng thay vì COUNT(*) mới nhất
+        private boolean approximate;
+
+    }
+
+    @Getter
+    @Setter
+    public static class CursorMeta {
+        private int pageSize;
+        private boolean hasNext;
+        private String nextCursor;
 
     }
 
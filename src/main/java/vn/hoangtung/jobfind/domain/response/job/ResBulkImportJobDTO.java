@@ -0,0 +1,30 @@
+package vn.hoangtung.jobfind.domain.response.job;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ResBulkImportJobDTO {
+    private int total;
+    private int success;
+    private int failed;
+    private List<RowResult> rows;
+
+    // row: vị trí trong request (JSON: index từ 0, CSV: số dòng dữ liệu từ 1)
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class RowResult {
+        private int row;
+        private Long id;
+        private String error;
+    }
+
+}
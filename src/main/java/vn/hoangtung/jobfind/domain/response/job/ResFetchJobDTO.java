@@ -0,0 +1,51 @@
+package vn.hoangtung.jobfind.domain.response.job;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import vn.hoangtung.jobfind.util.constant.LevelEnum;
+
+// DTO gọn cho danh sách job: không có description, company/skills chỉ giữ field cần hiển thị
+@Getter
+@Setter
+public class ResFetchJobDTO {
+    private long id;
+    private String name;
+    private String location;
+    private double salary;
+    private int quantity;
+    private LevelEnum level;
+
+    private Instant startDate;
+    private Instant endDate;
+    private boolean active;
+
+    private Instant createdAt;
+    private Instant updatedAt;
+    private String createdBy;
+    private String updatedBy;
+
+    private CompanyJob company;
+    private List<SkillJob> skills;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class CompanyJob {
+        private long id;
+        private String name;
+        private String logo;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class SkillJob {
+        private long id;
+        private String name;
+    }
+
+}
@@ -2,6 +2,7 @@ package vn.hoangtung.jobfind;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -17,7 +18,10 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 public class jobfindApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(jobfindApplication.class, args);
+		SpringApplication application = new SpringApplication(jobfindApplication.class);
+		// giữ các startup step (kể cả jobfind.seed.*) cho /actuator/startup
+		application.setApplicationStartup(new BufferingApplicationStartup(2048));
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,29 @@
+package vn.hoangtung.jobfind.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import vn.hoangtung.jobfind.domain.FileBlob;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, String> {
+
+    // 2 upload cùng nội dung chạy song song: chỉ 1 dòng được tạo, không lỗi duplicate key
+    @Modifying
+    @Transactional
+    @Query(value = "insert ignore into file_blobs (sha256, size, content_type, ref_count, created_at) "
+            + "values (:sha256, :size, :contentType, 0, :now)", nativeQuery = true)
+    int insertIfAbsent(@Param("sha256") String sha256, @Param("size") long size,
+            @Param("contentType") String contentType, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("update FileBlob b set b.refCount = b.refCount + 1 where b.sha256 = :sha256")
+    int incrementRefCount(@Param("sha256") String sha256);
+}
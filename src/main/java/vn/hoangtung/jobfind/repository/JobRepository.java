@@ -1,9 +1,13 @@
 package vn.hoangtung.jobfind.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import vn.hoangtung.jobfind.domain.Job;
@@ -12,4 +16,25 @@ import vn.hoangtung.jobfind.domain.Skill;
 @Repository
 public interface JobRepository extends JpaRepository<Job, Long>, JpaSpecificationExecutor<Job> {
     List<Job> findBySkillsIn(List<Skill> skills);
-}
\ No newline at end of file
+
+    // load job theo từng batch (keyset trên id), company được join sẵn
+    @Query("select j from Job j left join fetch j.company where j.id > :afterId order by j.id asc")
+    List<Job> findAfterId(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("select j from Job j left join fetch j.company where j.id in :ids")
+    List<Job> findWithCompanyByIdIn(@Param("ids") Collection<Long> ids);
+
+    // [jobId, skillId, skillName] cho cả batch job trong 1 query
+    @Query("select j.id, s.id, s.name from Job j join j.skills s where j.id in :ids")
+    List<Object[]> findSkillsByJobIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select j.id from Job j join j.skills s where s.id = :skillId")
+    List<Long> findIdsBySkillId(@Param("skillId") long skillId);
+
+    // [skillId, jobId] của các job active có skill thuộc danh sách
+    @Query("select s.id, j.id from Job j join j.skills s where j.active = true and s.id in :skillIds")
+    List<Object[]> findActiveJobIdsBySkillIds(@Param("skillIds") Collection<Long> skillIds);
+
+    @Query("select j.id from Job j where j.company.id = :companyId")
+    List<Long> findIdsByCompanyId(@Param("companyId") long companyId);
+}
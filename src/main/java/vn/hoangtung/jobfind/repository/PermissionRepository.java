@@ -2,10 +2,14 @@ package vn.hoangtung.jobfind.repository;
 
 import java.util.List;
 
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import vn.hoangtung.jobfind.domain.Permission;
 
 @Repository
@@ -14,5 +18,10 @@ public interface PermissionRepository extends JpaRepository<Permission, Long>,
 
     boolean existsByModuleAndApiPathAndMethod(String module, String apiPath, String method);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Permission> findByIdIn(List<Long> id);
+
+    // [method, apiPath] của mọi permission, không load entity
+    @Query("select p.method, p.apiPath from Permission p")
+    List<Object[]> findAllKeys();
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package vn.hoangtung.jobfind.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import vn.hoangtung.jobfind.domain.RefreshToken;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // xoay vòng token: chỉ 1 request đổi được hash cũ, request đến sau nhận 0
+    @Modifying
+    @Transactional
+    @Query("update RefreshToken t set t.tokenHash = :newHash, t.expiresAt = :expiresAt, t.lastUsedAt = :now "
+            + "where t.tokenHash = :oldHash and t.email = :email and t.expiresAt > :now")
+    int rotate(@Param("oldHash") String oldHash, @Param("newHash") String newHash, @Param("email") String email,
+            @Param("expiresAt") Instant expiresAt, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken t where t.tokenHash = :tokenHash")
+    int deleteByHash(@Param("tokenHash") String tokenHash);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken t where t.email = :email")
+    int deleteByEmail(@Param("email") String email);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken t where t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,9 +1,20 @@
 package vn.hoangtung.jobfind.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
 import vn.hoangtung.jobfind.domain.Role;
 
 @Repository
@@ -11,5 +22,26 @@ public interface RoleRepository extends JpaRepository<Role, Long>,
         JpaSpecificationExecutor<Role> {
     boolean existsByName(String name);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Role findByName(String name);
+
+    // [method, apiPath] của role, không load entity Permission
+    @Query("select p.method, p.apiPath from Role r join r.permissions p where r.id = :roleId")
+    List<Object[]> findPermissionKeysByRoleId(@Param("roleId") long roleId);
+
+    // [id, name, apiPath, method, module] cho payload đăng nhập (render menu)
+    @Query("select p.id, p.name, p.apiPath, p.method, p.module from Role r join r.permissions p "
+            + "where r.id = :roleId order by p.id")
+    List<Object[]> findLoginPermissionsByRoleId(@Param("roleId") long roleId);
+
+    @Query("select r.permissionVersion from Role r where r.id = :roleId")
+    Optional<Long> findPermissionVersionById(@Param("roleId") long roleId);
+
+    @Query("select r.id from Role r join r.permissions p where p.id = :permissionId")
+    List<Long> findIdsByPermissionId(@Param("permissionId") long permissionId);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update Role r set r.permissionVersion = r.permissionVersion + 1 where r.id in :ids")
+    int incrementPermissionVersion(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -1,15 +1,19 @@
 package vn.hoangtung.jobfind.repository;
 
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import jakarta.persistence.QueryHint;
 import vn.hoangtung.jobfind.domain.Skill;
 
 @Repository
 public interface SkillRepository extends JpaRepository<Skill, Long>, JpaSpecificationExecutor<Skill> {
     boolean existsByName(String name);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Skill> findByIdIn(List<Long> id);
 
 }
\ No newline at end of file
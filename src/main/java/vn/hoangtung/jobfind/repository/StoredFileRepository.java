@@ -0,0 +1,30 @@
+package vn.hoangtung.jobfind.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import vn.hoangtung.jobfind.domain.StoredFile;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, Long> {
+
+    // [sha256, size, contentType, createdAt] của blob mà tên file trỏ tới
+    @Query("select b.sha256, b.size, b.contentType, b.createdAt from StoredFile f, FileBlob b "
+            + "where b.sha256 = f.sha256 and f.folder = :folder and f.fileName = :fileName")
+    List<Object[]> findBlob(@Param("folder") String folder, @Param("fileName") String fileName);
+
+    // 0 nếu tên đã tồn tại (upload lại đúng file cũ)
+    @Modifying
+    @Transactional
+    @Query(value = "insert ignore into stored_files (folder, file_name, sha256, created_at) "
+            + "values (:folder, :fileName, :sha256, :now)", nativeQuery = true)
+    int insertIfAbsent(@Param("folder") String folder, @Param("fileName") String fileName,
+            @Param("sha256") String sha256, @Param("now") Instant now);
+}
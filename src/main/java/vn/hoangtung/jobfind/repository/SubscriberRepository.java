@@ -1,7 +1,13 @@
 package vn.hoangtung.jobfind.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import vn.hoangtung.jobfind.domain.Subscriber;
@@ -12,4 +18,12 @@ public interface SubscriberRepository extends JpaRepository<Subscriber, Long>,
     boolean existsByEmail(String email);
 
     Subscriber findByEmail(String email);
+
+    // [id, email, name] theo keyset trên id, không load entity
+    @Query("select s.id, s.email, s.name from Subscriber s where s.id > :afterId order by s.id asc")
+    List<Object[]> findPageAfterId(@Param("afterId") long afterId, Pageable pageable);
+
+    // [subscriberId, skillId] cho cả chunk trong 1 query
+    @Query("select s.id, sk.id from Subscriber s join s.skills sk where s.id in :ids")
+    List<Object[]> findSkillIdsBySubscriberIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -7,6 +7,10 @@ import vn.hoangtung.jobfind.domain.User;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -19,8 +23,16 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
 
     boolean existsByEmail(String email);
 
-    User findByRefreshTokenAndEmail(String token, String email);
-
     List<User> findByCompany(Company company);
 
+    // [userId, roleId, authEpoch]; roleId = null nếu user chưa có role
+    @Query("select u.id, r.id, u.authEpoch from User u left join u.role r where u.email = :email")
+    List<Object[]> findRoleIdByEmail(@Param("email") String email);
+
+    // access token phát hành trước đó không còn được tin claim role
+    @Modifying
+    @Transactional
+    @Query("update User u set u.authEpoch = u.authEpoch + 1 where u.id = :id")
+    int incrementAuthEpoch(@Param("id") long id);
+
 }
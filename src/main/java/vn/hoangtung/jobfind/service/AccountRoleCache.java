@@ -0,0 +1,61 @@
+package vn.hoangtung.jobfind.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import vn.hoangtung.jobfind.domain.Role;
+import vn.hoangtung.jobfind.domain.response.ResLoginDTO;
+import vn.hoangtung.jobfind.repository.RoleRepository;
+
+/**
+ * Cache phần role của payload login/refresh (tên role + danh sách permission để
+ * render menu) theo (role id, permissionVersion). Version tăng mỗi khi role hoặc
+ * permission của role đổi, nên key mới tự bỏ qua bản cũ, không cần invalidate.
+ */
+@Service
+public class AccountRoleCache {
+
+    private record Key(long roleId, long version) {
+    }
+
+    private final RoleRepository roleRepository;
+    private final Cache<Key, ResLoginDTO.RoleLogin> cache;
+
+    public AccountRoleCache(
+            RoleRepository roleRepository,
+            MeterRegistry meterRegistry,
+            @Value("${hoangtung.cache.account-role.max-size:256}") long maxSize) {
+        this.roleRepository = roleRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofHours(1))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, "accountRole");
+    }
+
+    // role lấy từ User (ManyToOne eager) nên không cần query thêm để biết version
+    public ResLoginDTO.RoleLogin get(Role role) {
+        if (role == null) {
+            return null;
+        }
+        return this.cache.get(new Key(role.getId(), role.getPermissionVersion()), key -> this.load(role));
+    }
+
+    private ResLoginDTO.RoleLogin load(Role role) {
+        List<ResLoginDTO.PermissionLogin> permissions = this.roleRepository
+                .findLoginPermissionsByRoleId(role.getId()).stream()
+                .map(row -> new ResLoginDTO.PermissionLogin((Long) row[0], (String) row[1], (String) row[2],
+                        (String) row[3], (String) row[4]))
+                .toList();
+        return new ResLoginDTO.RoleLogin(role.getId(), role.getName(), role.getPermissionVersion(), permissions);
+    }
+}
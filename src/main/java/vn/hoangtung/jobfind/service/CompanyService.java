@@ -7,28 +7,39 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import vn.hoangtung.jobfind.domain.Company;
 import vn.hoangtung.jobfind.domain.User;
 import vn.hoangtung.jobfind.domain.response.ResultPaginationDTO;
 import vn.hoangtung.jobfind.repository.CompanyRepository;
 import vn.hoangtung.jobfind.repository.UserRepository;
+import vn.hoangtung.jobfind.util.error.IdInvalidException;
 
 @Service
 public class CompanyService {
 
 	private final CompanyRepository companyRepository;
 	private final UserRepository userRepository;
+	private final PaginationService paginationService;
+	private final JobDetailCacheService jobDetailCacheService;
+	private final JobSearchService jobSearchService;
 
-	public CompanyService(CompanyRepository companyRepository, UserRepository userRepository) {
+	public CompanyService(CompanyRepository companyRepository, UserRepository userRepository,
+			PaginationService paginationService, JobDetailCacheService jobDetailCacheService,
+			JobSearchService jobSearchService) {
 		this.companyRepository = companyRepository;
 		this.userRepository = userRepository;
+		this.paginationService = paginationService;
+		this.jobDetailCacheService = jobDetailCacheService;
+		this.jobSearchService = jobSearchService;
 	}
 
 	public Company handleCreateCompany(Company c) {
 		return this.companyRepository.save(c);
 	}
 
+	@Transactional(readOnly = true)
 	public List<Company> handleGetCompany(Pageable pageable) {
 		Page<Company> pageCompany = this.companyRepository.findAll(pageable);
 		return pageCompany.getContent();
@@ -43,7 +54,12 @@ public class CompanyService {
 			currentCompany.setName(c.getName());
 			currentCompany.setDescription(c.getDescription());
 			currentCompany.setAddress(c.getAddress());
-			return this.companyRepository.save(currentCompany);
+			Company savedCompany = this.companyRepository.save(currentCompany);
+			// job detail nhúng company => xóa cache các job của company
+			this.jobDetailCacheService.evictByCompany(savedCompany.getId());
+			// tên company là label của facet COMPANY
+			this.jobSearchService.reindexByCompany(savedCompany.getId());
+			return savedCompany;
 		}
 		return null;
 	}
@@ -55,6 +71,7 @@ public class CompanyService {
 			// fetch all user belong to this company
 			List<User> users = this.userRepository.findByCompany(com);
 			this.userRepository.deleteAll(users);
+			this.jobDetailCacheService.evictByCompany(id);
 		}
 		this.companyRepository.deleteById(id);
 	}
@@ -63,20 +80,17 @@ public class CompanyService {
 		return this.companyRepository.findById(id);
 	}
 
-	public ResultPaginationDTO handleGetCompany(Specification<Company> spec, Pageable pageable) {
-		Page<Company> pCompany = this.companyRepository.findAll(spec, pageable);
-		ResultPaginationDTO rs = new ResultPaginationDTO();
-		ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
-
-		mt.setPage(pageable.getPageNumber() + 1);
-		mt.setPageSize(pageable.getPageSize());
-
-		mt.setPages(pCompany.getTotalPages());
-		mt.setTotal(pCompany.getTotalElements());
+	@Transactional(readOnly = true)
+	public ResultPaginationDTO handleGetCompany(Specification<Company> spec, Pageable pageable, String filter)
+			throws IdInvalidException {
+		return this.paginationService.fetchPage("companies", Company.class, spec, pageable, filter,
+				companies -> companies);
+	}
 
-		rs.setMeta(mt);
-		rs.setResult(pCompany.getContent());
-		return rs;
+	@Transactional(readOnly = true)
+	public ResultPaginationDTO handleGetCompanyByCursor(Specification<Company> spec, Pageable pageable,
+			String cursor) throws IdInvalidException {
+		return this.paginationService.fetchByCursor(Company.class, spec, pageable, cursor, companies -> companies);
 	}
 
 }
@@ -0,0 +1,50 @@
+package vn.hoangtung.jobfind.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import vn.hoangtung.jobfind.domain.User;
+import vn.hoangtung.jobfind.repository.UserRepository;
+import vn.hoangtung.jobfind.util.SecurityUtil;
+
+/**
+ * User đang đăng nhập của request hiện tại. Email lấy từ JWT subject, entity
+ * User chỉ được load (lazy) tối đa 1 lần cho cả request dù interceptor,
+ * controller, service đều cần.
+ */
+@Component
+@RequestScope
+public class CurrentUserContext {
+
+    private final UserRepository userRepository;
+
+    private String email;
+    private User user;
+    private boolean userLoaded;
+
+    public CurrentUserContext(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // "" nếu chưa đăng nhập
+    public String getEmail() {
+        if (this.email == null || this.email.isEmpty()) {
+            this.email = SecurityUtil.getCurrentUserLogin().orElse("");
+        }
+        return this.email;
+    }
+
+    // null nếu chưa đăng nhập hoặc user không còn tồn tại
+    public User getUser() {
+        if (!this.userLoaded) {
+            String currentEmail = this.getEmail();
+            if (currentEmail.isEmpty()) {
+                // chưa xác thực: chưa đánh dấu đã load, lần gọi sau (sau login) thử lại
+                return null;
+            }
+            this.user = this.userRepository.findByEmail(currentEmail);
+            this.userLoaded = true;
+        }
+        return this.user;
+    }
+}
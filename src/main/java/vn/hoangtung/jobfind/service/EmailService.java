@@ -42,7 +42,7 @@ public class EmailService {
         this.mailSender.send(msg);
     }
 
-    public void sendEmailSync(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
+    public boolean sendEmailSync(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
         // Prepare message using a Spring helper
         MimeMessage mimeMessage = this.javaMailSender.createMimeMessage();
         try {
@@ -51,8 +51,10 @@ public class EmailService {
             message.setSubject(subject);
             message.setText(content, isHtml);
             this.javaMailSender.send(mimeMessage);
+            return true;
         } catch (MailException | MessagingException e) {
             System.out.println("ERROR SEND EMAIL: " + e);
+            return false;
         }
     }
 
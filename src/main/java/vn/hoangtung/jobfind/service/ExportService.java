@@ -0,0 +1,358 @@
+package vn.hoangtung.jobfind.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import vn.hoangtung.jobfind.domain.Company;
+import vn.hoangtung.jobfind.domain.Job;
+import vn.hoangtung.jobfind.domain.Resume;
+import vn.hoangtung.jobfind.domain.Skill;
+import vn.hoangtung.jobfind.domain.User;
+import vn.hoangtung.jobfind.util.constant.ExportFormatEnum;
+import vn.hoangtung.jobfind.util.error.IdInvalidException;
+import vn.hoangtung.jobfind.util.error.TooManyRequestsException;
+
+/**
+ * Export toàn bộ kết quả của một filter dưới dạng NDJSON / CSV.
+ * Dữ liệu đi từ 1 query duy nhất, đọc forward-only (MySQL streaming result set,
+ * fetch size = Integer.MIN_VALUE) và chỉ select cột scalar (Tuple), nên không có
+ * entity nào nằm lại trong persistence context => bộ nhớ không tăng theo số dòng.
+ * Mỗi export giữ 1 connection suốt lúc stream, nên số export chạy cùng lúc bị
+ * giới hạn (hoangtung.export.max-concurrent), vượt quá trả 429. Permit được trả
+ * khi body chạy xong, hoặc khi request async kết thúc (timeout, lỗi, executor từ
+ * chối) mà body chưa kịp chạy.
+ */
+@Service
+public class ExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String PERMIT_INTERCEPTOR_KEY = ExportService.class.getName() + ".permit";
+
+    private static final List<String> JOB_COLUMNS = List.of(
+            "id", "name", "location", "salary", "quantity", "level", "startDate", "endDate", "active",
+            "companyId", "companyName", "skills", "createdAt", "createdBy");
+
+    private static final List<String> RESUME_COLUMNS = List.of(
+            "id", "email", "url", "status", "userId", "userName", "jobId", "jobName", "companyName",
+            "createdAt", "createdBy");
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Semaphore permits;
+
+    public ExportService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${hoangtung.export.max-concurrent:4}") int maxConcurrent) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    public static ExportFormatEnum parseFormat(String format) throws IdInvalidException {
+        try {
+            return ExportFormatEnum.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IdInvalidException("Format export không hỗ trợ: " + format + " (ndjson | csv)");
+        }
+    }
+
+    public static ResponseEntity<StreamingResponseBody> toResponse(String fileName, ExportFormatEnum format,
+            StreamingResponseBody body) {
+        MediaType contentType = format == ExportFormatEnum.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + fileName + "." + format.name().toLowerCase() + "\"")
+                .contentType(contentType)
+                .body(body);
+    }
+
+    public StreamingResponseBody exportJobs(Specification<Job> spec, ExportFormatEnum format) {
+        Permit permit = this.acquire();
+        // chạy trên thread async của MVC => tự mở transaction, không dựa vào open-in-view
+        return out -> permit.run(
+                () -> this.transactionTemplate.executeWithoutResult(status -> this.writeJobs(spec, format, out)));
+    }
+
+    public StreamingResponseBody exportResumes(Specification<Resume> spec, ExportFormatEnum format) {
+        Permit permit = this.acquire();
+        return out -> permit.run(
+                () -> this.transactionTemplate.executeWithoutResult(status -> this.writeResumes(spec, format, out)));
+    }
+
+    // lấy permit ngay trên request thread => quá tải thì trả 429 trước khi gửi header 200
+    private Permit acquire() {
+        if (!this.permits.tryAcquire()) {
+            throw new TooManyRequestsException("Đang có quá nhiều export chạy cùng lúc, vui lòng thử lại sau");
+        }
+        Permit permit = new Permit();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            // body có thể không bao giờ chạy: async timeout / lỗi trước khi dispatch / executor từ chối
+            WebAsyncUtils.getAsyncManager(servletAttributes.getRequest()).registerCallableInterceptor(
+                    PERMIT_INTERCEPTOR_KEY, new CallableProcessingInterceptor() {
+                        @Override
+                        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                            permit.releaseIfUnused();
+                        }
+                    });
+        }
+        return permit;
+    }
+
+    /**
+     * 1 permit của semaphore, trả đúng 1 lần: body chạy xong thì body trả; request
+     * kết thúc khi body chưa chạy thì callback afterCompletion trả. Body đang chạy
+     * (vd. sau timeout) vẫn giữ permit vì vẫn giữ connection.
+     */
+    private class Permit {
+        private static final int HELD = 0;
+        private static final int RUNNING = 1;
+        private static final int RELEASED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(HELD);
+
+        void run(Runnable export) {
+            if (!this.state.compareAndSet(HELD, RUNNING)) {
+                // request đã kết thúc và permit đã trả => không export nữa
+                return;
+            }
+            try {
+                export.run();
+            } finally {
+                this.state.set(RELEASED);
+                permits.release();
+            }
+        }
+
+        void releaseIfUnused() {
+            if (this.state.compareAndSet(HELD, RELEASED)) {
+                permits.release();
+            }
+        }
+    }
+
+    private void writeJobs(Specification<Job> spec, ExportFormatEnum format, OutputStream out) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Job> root = query.from(Job.class);
+        Join<Job, Company> company = root.join("company", JoinType.LEFT);
+        Join<Job, Skill> skill = root.join("skills", JoinType.LEFT);
+
+        query.multiselect(
+                root.get("id").alias("id"),
+                root.get("name").alias("name"),
+                root.get("location").alias("location"),
+                root.get("salary").alias("salary"),
+                root.get("quantity").alias("quantity"),
+                root.get("level").alias("level"),
+                root.get("startDate").alias("startDate"),
+                root.get("endDate").alias("endDate"),
+                root.get("active").alias("active"),
+                company.get("id").alias("companyId"),
+                company.get("name").alias("companyName"),
+                skill.get("name").alias("skill"),
+                root.get("createdAt").alias("createdAt"),
+                root.get("createdBy").alias("createdBy"));
+        this.applySpec(spec, root, query, cb);
+        // mỗi job có thể ra nhiều dòng (1 dòng / skill), sort theo id để gom liền nhau
+        query.orderBy(cb.asc(root.get("id")));
+
+        RowWriter writer = new RowWriter(out, format, JOB_COLUMNS);
+        try (Stream<Tuple> rows = this.stream(query)) {
+            Iterator<Tuple> it = rows.iterator();
+            Map<String, Object> current = null;
+            Set<String> skills = new LinkedHashSet<>();
+            while (it.hasNext()) {
+                Tuple row = it.next();
+                Object id = row.get("id");
+                if (current == null || !current.get("id").equals(id)) {
+                    if (current != null) {
+                        current.put("skills", new ArrayList<>(skills));
+                        writer.write(current);
+                    }
+                    current = new LinkedHashMap<>();
+                    for (String column : JOB_COLUMNS) {
+                        if (!"skills".equals(column)) {
+                            current.put(column, row.get(column));
+                        }
+                    }
+                    skills.clear();
+                }
+                Object skillName = row.get("skill");
+                if (skillName != null) {
+                    skills.add(skillName.toString());
+                }
+            }
+            if (current != null) {
+                current.put("skills", new ArrayList<>(skills));
+                writer.write(current);
+            }
+        }
+        writer.finish();
+    }
+
+    private void writeResumes(Specification<Resume> spec, ExportFormatEnum format, OutputStream out) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Resume> root = query.from(Resume.class);
+        Join<Resume, User> user = root.join("user", JoinType.LEFT);
+        Join<Resume, Job> job = root.join("job", JoinType.LEFT);
+        Join<Job, Company> company = job.join("company", JoinType.LEFT);
+
+        query.multiselect(
+                root.get("id").alias("id"),
+                root.get("email").alias("email"),
+                root.get("url").alias("url"),
+                root.get("status").alias("status"),
+                user.get("id").alias("userId"),
+                user.get("name").alias("userName"),
+                job.get("id").alias("jobId"),
+                job.get("name").alias("jobName"),
+                company.get("name").alias("companyName"),
+                root.get("createdAt").alias("createdAt"),
+                root.get("createdBy").alias("createdBy"));
+        this.applySpec(spec, root, query, cb);
+        query.orderBy(cb.asc(root.get("id")));
+
+        RowWriter writer = new RowWriter(out, format, RESUME_COLUMNS);
+        try (Stream<Tuple> rows = this.stream(query)) {
+            rows.forEach(row -> {
+                Map<String, Object> values = new LinkedHashMap<>();
+                for (String column : RESUME_COLUMNS) {
+                    values.put(column, row.get(column));
+                }
+                writer.write(values);
+            });
+        }
+        writer.finish();
+    }
+
+    private <T> void applySpec(Specification<T> spec, Root<T> root, CriteriaQuery<Tuple> query,
+            CriteriaBuilder cb) {
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+
+    private Stream<Tuple> stream(CriteriaQuery<Tuple> query) {
+        TypedQuery<Tuple> typedQuery = this.entityManager.createQuery(query);
+        // Connector/J chỉ stream từng dòng khi fetch size = Integer.MIN_VALUE
+        typedQuery.setHint(AvailableHints.HINT_FETCH_SIZE, Integer.MIN_VALUE);
+        typedQuery.setHint(AvailableHints.HINT_READ_ONLY, true);
+        return typedQuery.getResultStream();
+    }
+
+    private class RowWriter {
+        private final OutputStream out;
+        private final ExportFormatEnum format;
+        private final List<String> columns;
+
+        RowWriter(OutputStream out, ExportFormatEnum format, List<String> columns) {
+            this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+            this.format = format;
+            this.columns = columns;
+            if (format == ExportFormatEnum.CSV) {
+                this.writeLine(String.join(",", columns));
+            }
+        }
+
+        void write(Map<String, Object> row) {
+            try {
+                if (this.format == ExportFormatEnum.NDJSON) {
+                    this.out.write(objectMapper.writeValueAsBytes(row));
+                    this.out.write('\n');
+                    return;
+                }
+                StringBuilder line = new StringBuilder();
+                for (int i = 0; i < this.columns.size(); i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    line.append(csvValue(row.get(this.columns.get(i))));
+                }
+                this.writeLine(line.toString());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() {
+            try {
+                this.out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeLine(String line) {
+            try {
+                this.out.write(line.getBytes(StandardCharsets.UTF_8));
+                this.out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // skills (list) nối bằng '|', quote theo RFC 4180 khi cần
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof List<?> list
+                ? String.join("|", list.stream().map(Object::toString).toList())
+                : value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
@@ -1,81 +1,485 @@
 package vn.hoangtung.jobfind.service;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
 
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.core.FileUploadException;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
+import vn.hoangtung.jobfind.repository.FileBlobRepository;
+import vn.hoangtung.jobfind.repository.StoredFileRepository;
+import vn.hoangtung.jobfind.util.error.StorageException;
+
+/**
+ * Lưu file theo nội dung: mỗi nội dung (SHA-256) chỉ nằm 1 lần trên đĩa ở
+ * blobs/ab/cd/<sha256>; bảng stored_files ánh xạ (folder, fileName) -> blob,
+ * file_blobs giữ metadata (size, checksum, content type) và đếm số tên đang dùng
+ * mỗi blob. Upload lại cùng 1 CV chỉ tốn 1 lần hash.
+ */
 @Service
 public class FileService {
 
+    // etag: sha256 (blob) hoặc size-mtime (file kiểu cũ); lastModified tính bằng millis
+    public record FileInfo(Path path, long size, String contentType, String etag, long lastModified) {
+    }
+
+    private static final String BLOB_DIR = "blobs";
+    private static final String TMP_DIR = ".tmp";
+    // đủ để 2 nội dung khác nhau cùng tên gốc không bao giờ trùng tên logic
+    private static final int NAME_HASH_PREFIX = 16;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    public static final String GZIP_SUFFIX = ".gz";
+    private static final Set<String> COMPRESSIBLE_TYPES = Set.of("image/svg+xml", "application/json",
+            "application/xml", "application/javascript", "application/msword");
+    private static final DataSize DEFAULT_MAX_SIZE = DataSize.ofMegabytes(50);
+    // giới hạn cho upload streaming: số part trong 1 request, size header của mỗi part
+    private static final long MAX_PARTS = 10;
+    private static final int PART_HEADER_SIZE_MAX = 8 * 1024;
+
+    private static final byte[] PDF_MAGIC = { '%', 'P', 'D', 'F', '-' };
+    private static final byte[] PNG_MAGIC = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    private static final byte[] JPEG_MAGIC = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF };
+    private static final byte[] OLE2_MAGIC = { (byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1,
+            (byte) 0xB1, 0x1A, (byte) 0xE1 };
+    private static final byte[] ZIP_MAGIC = { 'P', 'K', 0x03, 0x04 };
+    // loại file (theo magic bytes) -> đuôi file hợp lệ
+    private static final Map<String, Set<String>> ALLOWED_EXTENSIONS = Map.of(
+            "pdf", Set.of("pdf"),
+            "png", Set.of("png"),
+            "jpeg", Set.of("jpg", "jpeg"),
+            "doc", Set.of("doc"),
+            "docx", Set.of("docx"));
+
     @Value("${hoangtung.upload-file.base-uri}")
     private String baseURI;
 
-    // Tạo thư mục lưu trữ file
-    public void createDirectory(String folder) throws URISyntaxException {
-        URI uri = new URI(folder);
-        Path path = Paths.get(uri);
-        File tmpDir = new File(path.toString());
-        if (!tmpDir.isDirectory()) {
-            try {
-                Files.createDirectory(tmpDir.toPath());
-                System.out.println(">>> CREATE NEW DIRECTORY SUCCESSFUL, PATH = " + tmpDir.toPath());
-            } catch (IOException e) {
-                e.printStackTrace();
+    private final FileBlobRepository fileBlobRepository;
+    private final StoredFileRepository storedFileRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Environment environment;
+    private final Set<Path> knownDirectories = ConcurrentHashMap.newKeySet();
+    // chỉ dùng getItemIterator (streaming), không tạo DiskFileItem
+    private final JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> streamingUpload;
+
+    public FileService(
+            FileBlobRepository fileBlobRepository,
+            StoredFileRepository storedFileRepository,
+            PlatformTransactionManager transactionManager,
+            Environment environment) {
+        this.fileBlobRepository = fileBlobRepository;
+        this.storedFileRepository = storedFileRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.environment = environment;
+        // không qua MultipartResolver nên tự giới hạn cả request, giống max-request-size
+        this.streamingUpload = new JakartaServletFileUpload<>();
+        this.streamingUpload.setSizeMax(environment
+                .getProperty("spring.servlet.multipart.max-request-size", DataSize.class, DEFAULT_MAX_SIZE)
+                .toBytes());
+        this.streamingUpload.setFileCountMax(MAX_PARTS);
+        this.streamingUpload.setPartHeaderSizeMax(PART_HEADER_SIZE_MAX);
+    }
+
+    /**
+     * Ghi stream ra file tạm và tính SHA-256 cùng lúc, rồi move atomic vào
+     * blobs/ab/cd/<sha256> (nếu blob đã có thì bỏ file tạm). Trả về tên logic
+     * "<16 ký tự đầu sha>-<tên gốc>" dùng để download.
+     */
+    public String store(MultipartFile file, String folder) throws URISyntaxException, IOException {
+        String originalName = Paths.get(file.getOriginalFilename()).getFileName().toString();
+
+        Path root = this.root();
+        Path tmp = this.createTempFile(root);
+
+        MessageDigest digest = sha256();
+        long size;
+        try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+            size = Files.copy(inputStream, tmp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        String sha = HexFormat.of().formatHex(digest.digest());
+
+        return this.publish(root, tmp, sha, size, folder, sha.substring(0, NAME_HASH_PREFIX) + "-" + originalName);
+    }
+
+    /**
+     * Upload streaming (không qua MultipartResolver): đọc multipart body từng phần
+     * bằng commons-fileupload, kiểm tra magic bytes ở chunk đầu, ghi thẳng qua
+     * FileChannel vào file tạm cạnh thư mục blobs (move sau đó chỉ là rename) và
+     * tính SHA-256 trong lúc ghi. Vượt giới hạn size của folder thì dừng ngay.
+     */
+    public String storeStream(HttpServletRequest request, String folder)
+            throws URISyntaxException, IOException, StorageException {
+        if (!JakartaServletFileUpload.isMultipartContent(request)) {
+            throw new StorageException("Request must be multipart/form-data.");
+        }
+        long maxSize = this.maxSize(folder);
+
+        try {
+            FileItemInputIterator items = this.streamingUpload.getItemIterator(request);
+            while (items.hasNext()) {
+                FileItemInput item = items.next();
+                if (item.isFormField() || !"file".equals(item.getFieldName())) {
+                    continue;
+                }
+                if (item.getName() == null || item.getName().isBlank()) {
+                    break;
+                }
+                String originalName = Paths.get(item.getName()).getFileName().toString();
+                try (InputStream inputStream = item.getInputStream()) {
+                    return this.writeStream(inputStream, originalName, folder, maxSize);
+                }
+            }
+        } catch (FileUploadException e) {
+            // vượt sizeMax / số part / size header, hoặc body multipart hỏng => 400
+            throw new StorageException(e.getMessage());
+        }
+        throw new StorageException("File is empty. Please upload a file.");
+    }
+
+    String writeStream(InputStream inputStream, String originalName, String folder, long maxSize)
+            throws URISyntaxException, IOException, StorageException {
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        int first = inputStream.readNBytes(buffer, 0, buffer.length);
+        if (first == 0) {
+            throw new StorageException("File is empty. Please upload a file.");
+        }
+        String type = detectType(buffer, first);
+        if (type == null || !ALLOWED_EXTENSIONS.get(type).contains(extension(originalName))) {
+            throw new StorageException("Invalid file type. only allows " + ALLOWED_EXTENSIONS.keySet());
+        }
+
+        Path root = this.root();
+        Path tmp = this.createTempFile(root);
+
+        MessageDigest digest = sha256();
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            int n = first;
+            while (n > 0) {
+                size += n;
+                if (size > maxSize) {
+                    throw new StorageException("File exceeds the " + maxSize + " bytes limit of folder " + folder);
+                }
+                digest.update(buffer, 0, n);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, n);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+                n = inputStream.read(buffer);
             }
+        } catch (IOException | StorageException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        String sha = HexFormat.of().formatHex(digest.digest());
+        return this.publish(root, tmp, sha, size, folder, sha.substring(0, NAME_HASH_PREFIX) + "-" + originalName);
+    }
+
+    // move file tạm vào blobs/ab/cd/<sha256> (hoặc bỏ nếu blob đã có) rồi ghi bảng tên -> blob
+    private String publish(Path root, Path tmp, String sha, long size, String folder, String fileName)
+            throws IOException {
+        Path blob = this.blobPath(root, sha);
+        if (Files.exists(blob)) {
+            Files.delete(tmp);
         } else {
-            System.out.println(">>> SKIP MAKING DIRECTORY, ALREADY EXISTS");
+            this.ensureDirectory(blob.getParent());
+            try {
+                Files.move(tmp, blob, StandardCopyOption.ATOMIC_MOVE);
+                this.precompress(root, blob, contentTypeOf(fileName));
+            } catch (FileAlreadyExistsException e) {
+                // upload song song cùng nội dung đã move trước
+                Files.deleteIfExists(tmp);
+            }
+        }
+        this.register(sha, size, folder, fileName);
+        return fileName;
+    }
+
+    /**
+     * Tạo sẵn <blob>.gz cho loại nội dung nén được (text, svg, json, .doc) để
+     * /storage/** trả bản nén theo Accept-Encoding mà không nén lại mỗi request.
+     * pdf/png/jpeg/docx vốn đã nén nên bỏ qua; bản nén không nhỏ hơn 10% cũng bỏ.
+     */
+    private void precompress(Path root, Path blob, String contentType) {
+        if (!COMPRESSIBLE_TYPES.contains(contentType) && !contentType.startsWith("text/")) {
+            return;
+        }
+        Path gzip = blob.resolveSibling(blob.getFileName() + GZIP_SUFFIX);
+        try {
+            Path tmp = this.createTempFile(root);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+                Files.copy(blob, out);
+            }
+            if (Files.size(tmp) < Files.size(blob) * 9 / 10) {
+                Files.move(tmp, gzip, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.delete(tmp);
+            }
+        } catch (IOException e) {
+            // không có bản nén thì vẫn phục vụ bản gốc
+            System.out.println(">>> PRECOMPRESS FAILED: " + blob + " - " + e.getMessage());
         }
+    }
 
+    private static String contentTypeOf(String fileName) {
+        return MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
     }
 
-    // Lưu file người dùng upload lên thư mục chỉ định, tạo tên mới để tránh trùng.
-    public String store(MultipartFile file, String folder) throws URISyntaxException, IOException {
-        // create unique filename
-        String finalName = System.currentTimeMillis() + "-" + file.getOriginalFilename();
+    // chỉ tăng ref_count khi thêm tên mới; giảm / dọn blob chưa làm (xem FileBlob)
+    private void register(String sha, long size, String folder, String fileName) {
+        String contentType = contentTypeOf(fileName);
+        Instant now = Instant.now();
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.fileBlobRepository.insertIfAbsent(sha, size, contentType, now);
+            if (this.storedFileRepository.insertIfAbsent(folder, fileName, sha, now) == 1) {
+                this.fileBlobRepository.incrementRefCount(sha);
+            }
+        });
+    }
+
+    /**
+     * Chuyển file upload kiểu cũ (<folder>/<fileName>) vào blob store, giữ nguyên
+     * tên để resume.url / company.logo không đổi. Blob được tạo bằng hard link
+     * (không copy dữ liệu); filesystem không hỗ trợ hard link (FAT/exFAT, khác ổ)
+     * thì copy qua file tạm rồi move. Blob có trước khi ghi bảng, file cũ chỉ bị
+     * xóa sau đó, nên dừng giữa chừng rồi chạy lại vẫn an toàn. Trả về số file đã
+     * chuyển.
+     */
+    public int migrateLegacyFiles() throws URISyntaxException, IOException {
+        Path root = this.root();
+        int[] migrated = { 0 };
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                Path rel = root.relativize(dir);
+                boolean internal = rel.getNameCount() == 1
+                        && (rel.toString().equals(BLOB_DIR) || rel.toString().equals(TMP_DIR));
+                return internal ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                // file nằm ngay ở root không thuộc folder nào
+                if (attrs.isRegularFile() && !file.getParent().equals(root)) {
+                    migrateLegacyFile(root, file, attrs.size());
+                    if (++migrated[0] % 1000 == 0) {
+                        System.out.println(">>> UPLOAD MIGRATION: " + migrated[0] + " files");
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return migrated[0];
+    }
+
+    private void migrateLegacyFile(Path root, Path file, long size) throws IOException {
+        String folder = root.relativize(file.getParent()).toString().replace('\\', '/');
+        String fileName = file.getFileName().toString();
+
+        MessageDigest digest = sha256();
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(file), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        String sha = HexFormat.of().formatHex(digest.digest());
+
+        Path blob = this.blobPath(root, sha);
+        if (!Files.exists(blob)) {
+            this.ensureDirectory(blob.getParent());
+            try {
+                this.createLink(blob, file);
+            } catch (FileAlreadyExistsException e) {
+                // đã có từ lần chạy trước
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                this.copyToBlob(root, file, blob);
+            }
+            this.precompress(root, blob, contentTypeOf(fileName));
+        }
+        this.register(sha, size, folder, fileName);
+        Files.delete(file);
+    }
+
+    // tách riêng để test giả lập filesystem không hỗ trợ hard link
+    void createLink(Path link, Path existing) throws IOException {
+        Files.createLink(link, existing);
+    }
+
+    // copy vào file tạm rồi move: dừng giữa chừng không để lại blob thiếu dữ liệu
+    private void copyToBlob(Path root, Path file, Path blob) throws IOException {
+        Path tmp = this.createTempFile(root);
+        try {
+            Files.copy(file, tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, blob, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    // hoangtung.upload-file.max-size.<folder>, mặc định hoangtung.upload-file.max-size.default
+    private long maxSize(String folder) {
+        DataSize defaultSize = this.environment.getProperty("hoangtung.upload-file.max-size.default",
+                DataSize.class, DEFAULT_MAX_SIZE);
+        return this.environment.getProperty("hoangtung.upload-file.max-size." + folder, DataSize.class, defaultSize)
+                .toBytes();
+    }
+
+    // loại file theo magic bytes; null nếu không nằm trong danh sách cho phép
+    static String detectType(byte[] head, int length) {
+        if (startsWith(head, length, PDF_MAGIC)) {
+            return "pdf";
+        }
+        if (startsWith(head, length, PNG_MAGIC)) {
+            return "png";
+        }
+        if (startsWith(head, length, JPEG_MAGIC)) {
+            return "jpeg";
+        }
+        if (startsWith(head, length, OLE2_MAGIC)) {
+            return "doc";
+        }
+        if (startsWith(head, length, ZIP_MAGIC)) {
+            return "docx";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] head, int length, byte[] magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (head[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Thông tin file cần download. File trong blob store lấy size / checksum /
+     * content type từ bảng (1 lần tra index), không stat filesystem; file kiểu cũ
+     * mới phải đọc thuộc tính trên đĩa. Chặn fileName/folder kiểu "../".
+     */
+    public FileInfo getFile(String fileName, String folder)
+            throws URISyntaxException, StorageException, IOException {
+        Path root = this.root();
+        List<Object[]> rows = this.storedFileRepository.findBlob(folder, fileName);
+        if (!rows.isEmpty()) {
+            return this.toFileInfo(root, rows.get(0));
+        }
 
-        URI uri = new URI(baseURI + folder + "/" + finalName);
-        Path path = Paths.get(uri);
-        try (InputStream inputStream = file.getInputStream()) {
-            Files.copy(inputStream, path,
-                    StandardCopyOption.REPLACE_EXISTING);
+        // file upload trước khi có blob store (chưa migrate): vẫn nằm ở <folder>/<fileName>
+        Path path = root.resolve(folder).resolve(fileName).normalize();
+        if (!path.startsWith(root)) {
+            throw new StorageException("Invalid file path.");
         }
-        return finalName;
+        // file không tồn tại, hoặc file là 1 directory
+        if (!Files.isRegularFile(path)) {
+            throw new StorageException("File with name = " + fileName + " not found.");
+        }
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        return new FileInfo(path, attrs.size(), contentTypeOf(fileName),
+                "\"" + Long.toHexString(attrs.size()) + "-" + Long.toHexString(lastModified) + "\"", lastModified);
     }
 
-    // Trả về dung lượng file (byte).
-    public long getFileLength(String fileName, String folder) throws URISyntaxException {
-        URI uri = new URI(baseURI + folder + "/" + fileName);
-        Path path = Paths.get(uri);
+    // "/storage/<folder>/<fileName>": null nếu không phải file trong blob store
+    public FileInfo findStoredFile(String resourcePath) throws URISyntaxException {
+        int slash = resourcePath.lastIndexOf('/');
+        if (slash <= 0) {
+            return null;
+        }
+        List<Object[]> rows = this.storedFileRepository.findBlob(
+                resourcePath.substring(0, slash), resourcePath.substring(slash + 1));
+        return rows.isEmpty() ? null : this.toFileInfo(this.root(), rows.get(0));
+    }
 
-        File tmpDir = new File(path.toString());
+    private FileInfo toFileInfo(Path root, Object[] row) {
+        String sha = (String) row[0];
+        Instant createdAt = (Instant) row[3];
+        String contentType = row[2] != null ? (String) row[2] : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        return new FileInfo(this.blobPath(root, sha), (Long) row[1], contentType, "\"" + sha + "\"",
+                createdAt != null ? createdAt.toEpochMilli() : -1);
+    }
 
-        // file không tồn tại, hoặc file là 1 director => return 0
-        if (!tmpDir.exists() || tmpDir.isDirectory())
-            return 0;
-        return tmpDir.length();
+    private Path createTempFile(Path root) throws IOException {
+        Path tmpDir = root.resolve(TMP_DIR);
+        this.ensureDirectory(tmpDir);
+        return Files.createTempFile(tmpDir, "upload-", ".part");
     }
 
-    // Tạo một InputStreamResource từ file vật lý để gửi về client qua Controller
-    public InputStreamResource getResource(String fileName, String folder)
-            throws URISyntaxException, FileNotFoundException {
-        URI uri = new URI(baseURI + folder + "/" + fileName);
-        Path path = Paths.get(uri);
+    // thư mục shard đã tạo được nhớ lại, upload sau không phải hỏi filesystem
+    private void ensureDirectory(Path dir) throws IOException {
+        if (!this.knownDirectories.contains(dir)) {
+            Files.createDirectories(dir);
+            this.knownDirectories.add(dir);
+        }
+    }
 
-        File file = new File(path.toString());
-        return new InputStreamResource(new FileInputStream(file));
+    private Path root() throws URISyntaxException {
+        return Paths.get(new URI(baseURI)).toAbsolutePath().normalize();
+    }
+
+    // blobs/ab/cd/abcd... : tối đa 65536 thư mục con, mỗi thư mục ít file
+    private Path blobPath(Path root, String sha) {
+        return root.resolve(BLOB_DIR).resolve(sha.substring(0, 2)).resolve(sha.substring(2, 4)).resolve(sha);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package vn.hoangtung.jobfind.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import vn.hoangtung.jobfind.domain.Job;
+import vn.hoangtung.jobfind.repository.JobRepository;
+
+/**
+ * Cache JSON của job detail (GET /jobs/{id}) theo id. Lưu chuỗi đã serialize
+ * nên cache hit không chạm DB lẫn Jackson. Số liệu hit/miss/eviction được
+ * publish qua actuator (/actuator/metrics/cache.gets?tag=cache:jobDetail).
+ */
+@Service
+public class JobDetailCacheService {
+
+    private final JobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, String> cache;
+
+    public JobDetailCacheService(
+            JobRepository jobRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${hoangtung.cache.job-detail.max-size:10000}") long maxSize,
+            @Value("${hoangtung.cache.job-detail.ttl-seconds:600}") long ttlSeconds) {
+        this.jobRepository = jobRepository;
+        this.objectMapper = objectMapper;
+        // Caffeine dùng W-TinyLFU khi vượt maximumSize
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, "jobDetail");
+    }
+
+    // null nếu job không tồn tại (không cache kết quả rỗng)
+    public String getJobDetail(long id) {
+        return this.cache.get(id, this::load);
+    }
+
+    public void evict(long jobId) {
+        this.cache.invalidate(jobId);
+    }
+
+    public void evictAll(Collection<Long> jobIds) {
+        this.cache.invalidateAll(jobIds);
+    }
+
+    public void evictByCompany(long companyId) {
+        this.evictAll(this.jobRepository.findIdsByCompanyId(companyId));
+    }
+
+    public void evictBySkill(long skillId) {
+        this.evictAll(this.jobRepository.findIdsBySkillId(skillId));
+    }
+
+    private String load(long id) {
+        Optional<Job> job = this.jobRepository.findById(id);
+        if (job.isEmpty()) {
+            return null;
+        }
+        try {
+            return this.objectMapper.writeValueAsString(job.get());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Không thể serialize job " + id, e);
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package vn.hoangtung.jobfind.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import vn.hoangtung.jobfind.domain.Company;
+import vn.hoangtung.jobfind.domain.Job;
+import vn.hoangtung.jobfind.domain.Skill;
+import vn.hoangtung.jobfind.domain.response.job.ResBulkImportJobDTO;
+import vn.hoangtung.jobfind.repository.CompanyRepository;
+import vn.hoangtung.jobfind.repository.SkillRepository;
+import vn.hoangtung.jobfind.util.SecurityUtil;
+import vn.hoangtung.jobfind.util.constant.LevelEnum;
+import vn.hoangtung.jobfind.util.error.IdInvalidException;
+
+/**
+ * Import job số lượng lớn: skill/company được resolve 1 lần cho cả request, job
+ * và job_skill được insert bằng JDBC batch (rewriteBatchedStatements => 1
+ * multi-row INSERT mỗi batch), mỗi chunk là 1 transaction riêng.
+ */
+@Service
+public class JobImportService {
+
+    private static final String INSERT_JOB = "insert into jobs (name, location, salary, quantity, level, description,"
+            + " start_date, end_date, active, company_id, created_at, created_by)"
+            + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_JOB_SKILL = "insert into job_skill (job_id, skill_id) values (?, ?)";
+
+    private static final List<String> CSV_COLUMNS = List.of(
+            "name", "location", "salary", "quantity", "level", "description",
+            "startDate", "endDate", "active", "companyId", "skills");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SkillRepository skillRepository;
+    private final CompanyRepository companyRepository;
+    private final JobSearchService jobSearchService;
+
+    @Value("${hoangtung.import.chunk-size:500}")
+    private int chunkSize;
+
+    public JobImportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            SkillRepository skillRepository,
+            CompanyRepository companyRepository,
+            JobSearchService jobSearchService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.skillRepository = skillRepository;
+        this.companyRepository = companyRepository;
+        this.jobSearchService = jobSearchService;
+    }
+
+    public ResBulkImportJobDTO importJobs(List<Job> jobs) {
+        ResBulkImportJobDTO.RowResult[] results = new ResBulkImportJobDTO.RowResult[jobs.size()];
+
+        // resolve skill + company 1 lần cho cả request
+        Set<Long> skillIds = new HashSet<>();
+        Set<Long> companyIds = new HashSet<>();
+        for (Job job : jobs) {
+            if (job != null && job.getSkills() != null) {
+                job.getSkills().forEach(s -> skillIds.add(s.getId()));
+            }
+            if (job != null && job.getCompany() != null) {
+                companyIds.add(job.getCompany().getId());
+            }
+        }
+        Set<Long> existingSkills = this.skillRepository.findByIdIn(new ArrayList<>(skillIds)).stream()
+                .map(Skill::getId).collect(Collectors.toSet());
+        Set<Long> existingCompanies = this.companyRepository.findAllById(companyIds).stream()
+                .map(Company::getId).collect(Collectors.toSet());
+
+        List<Integer> validRows = new ArrayList<>();
+        for (int i = 0; i < jobs.size(); i++) {
+            String error = validate(jobs.get(i), existingSkills, existingCompanies);
+            if (error != null) {
+                results[i] = new ResBulkImportJobDTO.RowResult(i, null, error);
+            } else {
+                validRows.add(i);
+            }
+        }
+
+        String createdBy = SecurityUtil.getCurrentUserLogin().isPresent() == true
+                ? SecurityUtil.getCurrentUserLogin().get()
+                : "";
+        Instant createdAt = Instant.now();
+        List<Long> createdIds = new ArrayList<>();
+
+        for (int from = 0; from < validRows.size(); from += this.chunkSize) {
+            List<Integer> chunk = validRows.subList(from, Math.min(from + this.chunkSize, validRows.size()));
+            List<Job> chunkJobs = chunk.stream().map(jobs::get).toList();
+            try {
+                List<Long> ids = this.transactionTemplate
+                        .execute(status -> this.insertChunk(chunkJobs, createdAt, createdBy));
+                for (int i = 0; i < chunk.size(); i++) {
+                    results[chunk.get(i)] = new ResBulkImportJobDTO.RowResult(chunk.get(i), ids.get(i), null);
+                }
+                createdIds.addAll(ids);
+            } catch (RuntimeException e) {
+                // chunk bị rollback toàn bộ, các chunk khác không ảnh hưởng
+                System.out.println(">>> BULK IMPORT CHUNK FAILED: " + e.getMessage());
+                for (Integer row : chunk) {
+                    results[row] = new ResBulkImportJobDTO.RowResult(row, null,
+                            "Lỗi khi lưu batch: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+        }
+
+        // job mới insert bằng JDBC nên phải tự đưa vào search index
+        this.jobSearchService.reindex(createdIds);
+
+        ResBulkImportJobDTO res = new ResBulkImportJobDTO();
+        res.setTotal(jobs.size());
+        res.setSuccess(createdIds.size());
+        res.setFailed(jobs.size() - createdIds.size());
+        res.setRows(Arrays.asList(results));
+        return res;
+    }
+
+    /**
+     * CSV có header, các cột: name, location, salary, quantity, level,
+     * description, startDate, endDate (ISO-8601), active, companyId, skills (id
+     * phân cách bởi '|').
+     */
+    public ResBulkImportJobDTO importCsv(Reader reader) throws IOException, IdInvalidException {
+        BufferedReader in = new BufferedReader(reader);
+        List<String> header = readCsvRecord(in);
+        if (header == null) {
+            throw new IdInvalidException("File CSV rỗng");
+        }
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            index.put(header.get(i).trim(), i);
+        }
+        if (!index.containsKey("name") || !index.containsKey("location")) {
+            throw new IdInvalidException("CSV phải có header, tối thiểu các cột: name, location. Các cột hỗ trợ: "
+                    + CSV_COLUMNS);
+        }
+
+        List<Job> jobs = new ArrayList<>();
+        List<String> parseErrors = new ArrayList<>();
+        List<String> record;
+        while ((record = readCsvRecord(in)) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                jobs.add(toJob(record, index));
+                parseErrors.add(null);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                jobs.add(null);
+                parseErrors.add("Dữ liệu không hợp lệ: " + e.getMessage());
+            }
+        }
+
+        ResBulkImportJobDTO res = this.importJobs(jobs);
+        // CSV: đánh số dòng dữ liệu từ 1, gắn lỗi parse vào đúng dòng
+        for (ResBulkImportJobDTO.RowResult row : res.getRows()) {
+            if (parseErrors.get(row.getRow()) != null) {
+                row.setError(parseErrors.get(row.getRow()));
+            }
+            row.setRow(row.getRow() + 1);
+        }
+        return res;
+    }
+
+    private List<Long> insertChunk(List<Job> jobs, Instant createdAt, String createdBy) {
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        this.jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_JOB, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Job job = jobs.get(i);
+                        ps.setString(1, job.getName());
+                        ps.setString(2, job.getLocation());
+                        ps.setDouble(3, job.getSalary());
+                        ps.setInt(4, job.getQuantity());
+                        // level map ORDINAL (không có @Enumerated trên entity)
+                        if (job.getLevel() != null) {
+                            ps.setInt(5, job.getLevel().ordinal());
+                        } else {
+                            ps.setNull(5, Types.TINYINT);
+                        }
+                        ps.setString(6, job.getDescription());
+                        setInstant(ps, 7, job.getStartDate(), utc);
+                        setInstant(ps, 8, job.getEndDate(), utc);
+                        ps.setBoolean(9, job.isActive());
+                        if (job.getCompany() != null) {
+                            ps.setLong(10, job.getCompany().getId());
+                        } else {
+                            ps.setNull(10, Types.BIGINT);
+                        }
+                        setInstant(ps, 11, createdAt, utc);
+                        ps.setString(12, createdBy);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return jobs.size();
+                    }
+                },
+                keyHolder);
+
+        List<Long> ids = keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+                .toList();
+
+        List<long[]> jobSkills = new ArrayList<>();
+        for (int i = 0; i < jobs.size(); i++) {
+            if (jobs.get(i).getSkills() != null) {
+                long jobId = ids.get(i);
+                jobs.get(i).getSkills().stream().map(Skill::getId).distinct()
+                        .forEach(skillId -> jobSkills.add(new long[] { jobId, skillId }));
+            }
+        }
+        if (!jobSkills.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(INSERT_JOB_SKILL, jobSkills, jobSkills.size(), (ps, pair) -> {
+                ps.setLong(1, pair[0]);
+                ps.setLong(2, pair[1]);
+            });
+        }
+        return ids;
+    }
+
+    private static void setInstant(PreparedStatement ps, int index, Instant value, Calendar utc)
+            throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            // giống Hibernate: Instant lưu theo UTC
+            ps.setTimestamp(index, Timestamp.from(value), utc);
+        }
+    }
+
+    private static String validate(Job job, Set<Long> existingSkills, Set<Long> existingCompanies) {
+        if (job == null) {
+            return "Dòng không hợp lệ";
+        }
+        if (job.getName() == null || job.getName().isBlank()) {
+            return "name không được để trống";
+        }
+        if (job.getLocation() == null || job.getLocation().isBlank()) {
+            return "location không được để trống";
+        }
+        if (job.getCompany() != null && !existingCompanies.contains(job.getCompany().getId())) {
+            return "Company với id = " + job.getCompany().getId() + " không tồn tại";
+        }
+        if (job.getSkills() != null) {
+            for (Skill skill : job.getSkills()) {
+                if (!existingSkills.contains(skill.getId())) {
+                    return "Skill với id = " + skill.getId() + " không tồn tại";
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Job toJob(List<String> record, Map<String, Integer> index) {
+        Job job = new Job();
+        job.setName(column(record, index, "name"));
+        job.setLocation(column(record, index, "location"));
+        String salary = column(record, index, "salary");
+        if (salary != null) {
+            job.setSalary(Double.parseDouble(salary));
+        }
+        String quantity = column(record, index, "quantity");
+        if (quantity != null) {
+            job.setQuantity(Integer.parseInt(quantity));
+        }
+        String level = column(record, index, "level");
+        if (level != null) {
+            job.setLevel(LevelEnum.valueOf(level.toUpperCase()));
+        }
+        job.setDescription(column(record, index, "description"));
+        String startDate = column(record, index, "startDate");
+        if (startDate != null) {
+            job.setStartDate(Instant.parse(startDate));
+        }
+        String endDate = column(record, index, "endDate");
+        if (endDate != null) {
+            job.setEndDate(Instant.parse(endDate));
+        }
+        String active = column(record, index, "active");
+        job.setActive(active == null || Boolean.parseBoolean(active));
+        String companyId = column(record, index, "companyId");
+        if (companyId != null) {
+            Company company = new Company();
+            company.setId(Long.parseLong(companyId));
+            job.setCompany(company);
+        }
+        String skills = column(record, index, "skills");
+        if (skills != null) {
+            List<Skill> jobSkills = new ArrayList<>();
+            for (String skillId : skills.split("\\|")) {
+                if (!skillId.isBlank()) {
+                    Skill skill = new Skill();
+                    skill.setId(Long.parseLong(skillId.trim()));
+                    jobSkills.add(skill);
+                }
+            }
+            job.setSkills(jobSkills);
+        }
+        return job;
+    }
+
+    private static String column(List<String> record, Map<String, Integer> index, String name) {
+        Integer i = index.get(name);
+        if (i == null || i >= record.size()) {
+            return null;
+        }
+        String value = record.get(i).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // đọc 1 record CSV (RFC 4180: field trong "..." có thể chứa dấu phẩy / xuống dòng)
+    private static List<String> readCsvRecord(BufferedReader in) throws IOException {
+        int c = in.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    int next = in.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            in.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,188 @@
+package vn.hoangtung.jobfind.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import vn.hoangtung.jobfind.domain.Job;
+import vn.hoangtung.jobfind.repository.JobRepository;
+import vn.hoangtung.jobfind.util.search.JobFacetIndex;
+import vn.hoangtung.jobfind.util.search.JobSearchIndex;
+
+@Service
+public class JobSearchService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private record SkillRef(long id, String name) {
+    }
+
+    // search index chỉ chứa job active (kết quả /jobs/search); facet index chứa mọi
+    // job như listing /jobs để số đếm khớp với total. Cùng các hook cập nhật
+    private record Indexes(JobSearchIndex search, JobFacetIndex facets) {
+        Indexes() {
+            this(new JobSearchIndex(), new JobFacetIndex());
+        }
+    }
+
+    private final JobRepository jobRepository;
+    // rebuild tạo bộ index mới rồi đổi tham chiếu: request đang chạy không thấy index rỗng
+    private volatile Indexes indexes = new Indexes();
+    // job thay đổi trong lúc rebuild (null khi không rebuild), index lại sau khi đổi
+    private volatile Set<Long> changedDuringRebuild;
+
+    public JobSearchService(JobRepository jobRepository) {
+        this.jobRepository = jobRepository;
+    }
+
+    // build index 1 lần khi app khởi động xong
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuildIndex() {
+        long start = System.currentTimeMillis();
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        this.changedDuringRebuild = changed;
+
+        Indexes rebuilt = new Indexes();
+        long lastId = 0;
+        while (true) {
+            List<Job> batch = this.jobRepository.findAfterId(lastId, PageRequest.of(0, BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            this.indexBatch(batch, rebuilt);
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+
+        this.indexes = rebuilt;
+        this.changedDuringRebuild = null;
+        // batch đọc trước khi job bị sửa => lấy lại từ DB vào index mới
+        this.reindex(changed);
+
+        System.out.println(">>> JOB SEARCH INDEX BUILT: " + rebuilt.search().size() + " jobs in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    public void index(Job job) {
+        List<SkillRef> skills = new ArrayList<>();
+        if (job.getSkills() != null) {
+            job.getSkills().forEach(skill -> skills.add(new SkillRef(skill.getId(), skill.getName())));
+        }
+        this.markChanged(job.getId());
+        this.put(job, skills, this.indexes);
+    }
+
+    public void remove(long jobId) {
+        this.markChanged(jobId);
+        Indexes current = this.indexes;
+        current.search().remove(Math.toIntExact(jobId));
+        current.facets().remove(Math.toIntExact(jobId));
+    }
+
+    // ghi nhận trước khi đọc this.indexes: thấy null nghĩa là index mới đã được gắn
+    private void markChanged(long jobId) {
+        Set<Long> changed = this.changedDuringRebuild;
+        if (changed != null) {
+            changed.add(jobId);
+        }
+    }
+
+    // dùng khi skill bị đổi tên / bị xóa: index lại các job liên quan
+    public void reindex(Collection<Long> jobIds) {
+        List<Long> ids = new ArrayList<>(jobIds);
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            List<Job> jobs = this.jobRepository.findWithCompanyByIdIn(chunk);
+            chunk.forEach(this::remove);
+            this.indexBatch(jobs, this.indexes);
+        }
+    }
+
+    public void reindexBySkill(long skillId) {
+        this.reindex(this.jobRepository.findIdsBySkillId(skillId));
+    }
+
+    // tên company là label của facet COMPANY
+    public void reindexByCompany(long companyId) {
+        this.reindex(this.jobRepository.findIdsByCompanyId(companyId));
+    }
+
+    public JobSearchIndex.SearchResult search(String query, int offset, int limit) {
+        return this.indexes.search().search(query, offset, limit);
+    }
+
+    public BitSet match(String query) {
+        return this.indexes.search().match(query);
+    }
+
+    // match = null => đếm trên toàn bộ job (active lẫn inactive, giống listing)
+    public Map<JobFacetIndex.Facet, List<JobFacetIndex.FacetValue>> facets(BitSet match, int limit) {
+        return this.indexes.facets().count(match, limit);
+    }
+
+    private void indexBatch(List<Job> jobs, Indexes target) {
+        if (jobs.isEmpty()) {
+            return;
+        }
+        // load skill của cả batch bằng 1 query thay vì lazy load từng job
+        Map<Long, List<SkillRef>> skillsByJob = new HashMap<>();
+        List<Long> ids = jobs.stream().map(Job::getId).toList();
+        for (Object[] row : this.jobRepository.findSkillsByJobIds(ids)) {
+            skillsByJob.computeIfAbsent((Long) row[0], k -> new ArrayList<>())
+                    .add(new SkillRef((Long) row[1], (String) row[2]));
+        }
+
+        for (Job job : jobs) {
+            this.put(job, skillsByJob.getOrDefault(job.getId(), List.of()), target);
+        }
+    }
+
+    private void put(Job job, List<SkillRef> skills, Indexes target) {
+        int docId = Math.toIntExact(job.getId());
+        List<String> skillNames = skills.stream().map(SkillRef::name).filter(name -> name != null).toList();
+
+        EnumMap<JobSearchIndex.Field, List<String>> fields = new EnumMap<>(JobSearchIndex.Field.class);
+        fields.put(JobSearchIndex.Field.NAME, nullSafe(job.getName()));
+        fields.put(JobSearchIndex.Field.LOCATION, nullSafe(job.getLocation()));
+        fields.put(JobSearchIndex.Field.DESCRIPTION, nullSafe(job.getDescription()));
+        fields.put(JobSearchIndex.Field.SKILL, skillNames);
+        if (job.isActive()) {
+            target.search().put(docId, fields);
+        } else {
+            target.search().remove(docId);
+        }
+
+        EnumMap<JobFacetIndex.Facet, Map<String, String>> facets = new EnumMap<>(JobFacetIndex.Facet.class);
+        if (job.getLevel() != null) {
+            facets.put(JobFacetIndex.Facet.LEVEL, Map.of(job.getLevel().name(), job.getLevel().name()));
+        }
+        if (job.getLocation() != null && !job.getLocation().isBlank()) {
+            facets.put(JobFacetIndex.Facet.LOCATION, Map.of(job.getLocation().trim(), job.getLocation().trim()));
+        }
+        if (job.getCompany() != null) {
+            String companyName = job.getCompany().getName() != null ? job.getCompany().getName() : "";
+            facets.put(JobFacetIndex.Facet.COMPANY, Map.of(String.valueOf(job.getCompany().getId()), companyName));
+        }
+        Map<String, String> skillValues = new LinkedHashMap<>();
+        for (SkillRef skill : skills) {
+            skillValues.put(String.valueOf(skill.id()), skill.name() != null ? skill.name() : "");
+        }
+        facets.put(JobFacetIndex.Facet.SKILL, skillValues);
+        target.facets().put(docId, facets);
+    }
+
+    private static List<String> nullSafe(String value) {
+        return value == null ? List.of() : List.of(value);
+    }
+}
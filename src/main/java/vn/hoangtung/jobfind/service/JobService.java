@@ -1,38 +1,61 @@
 package vn.hoangtung.jobfind.service;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.stream.Collectors;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
+import jakarta.persistence.criteria.JoinType;
 import vn.hoangtung.jobfind.domain.Company;
 import vn.hoangtung.jobfind.domain.Job;
 import vn.hoangtung.jobfind.domain.Skill;
 import vn.hoangtung.jobfind.domain.response.ResCreateJobDTO;
 import vn.hoangtung.jobfind.domain.response.ResUpdateJobDTO;
 import vn.hoangtung.jobfind.domain.response.ResultPaginationDTO;
+import vn.hoangtung.jobfind.domain.response.job.ResFetchJobDTO;
 import vn.hoangtung.jobfind.repository.CompanyRepository;
 import vn.hoangtung.jobfind.repository.JobRepository;
 import vn.hoangtung.jobfind.repository.SkillRepository;
+import vn.hoangtung.jobfind.util.error.IdInvalidException;
+import vn.hoangtung.jobfind.util.search.JobFacetIndex;
+import vn.hoangtung.jobfind.util.search.JobSearchIndex;
 import java.util.Optional;
 
 @Service
 public class JobService {
 
+    private static final int FACET_LIMIT = 50;
+    // search xếp hạng trong bộ nhớ: chỉ cho lật tới kết quả thứ MAX_SEARCH_DEPTH
+    private static final int MAX_SEARCH_DEPTH = 10_000;
+
     private final JobRepository jobRepository;
     private final SkillRepository skillRepository;
     private final CompanyRepository companyRepository;
+    private final JobSearchService jobSearchService;
+    private final PaginationService paginationService;
+    private final JobDetailCacheService jobDetailCacheService;
 
     public JobService(
             JobRepository jobRepository,
             SkillRepository skillRepository,
-            CompanyRepository companyRepository) {
+            CompanyRepository companyRepository,
+            JobSearchService jobSearchService,
+            PaginationService paginationService,
+            JobDetailCacheService jobDetailCacheService) {
         this.jobRepository = jobRepository;
         this.skillRepository = skillRepository;
         this.companyRepository = companyRepository;
+        this.jobSearchService = jobSearchService;
+        this.paginationService = paginationService;
+        this.jobDetailCacheService = jobDetailCacheService;
     }
 
     public Optional<Job> fetchJobById(long id) {
@@ -60,6 +83,7 @@ public class JobService {
 
         // create job
         Job currentJob = this.jobRepository.save(j);
+        this.jobSearchService.index(currentJob);
 
         ResCreateJobDTO dto = new ResCreateJobDTO();
 
@@ -117,6 +141,8 @@ public class JobService {
 
         // update job
         Job currentJob = this.jobRepository.save(jobInDB);
+        this.jobSearchService.index(currentJob);
+        this.jobDetailCacheService.evict(currentJob.getId());
         // convert response
         ResUpdateJobDTO dto = new ResUpdateJobDTO();
 
@@ -145,11 +171,121 @@ public class JobService {
 
     public void delete(long id) {
         this.jobRepository.deleteById(id);
+        this.jobSearchService.remove(id);
+        this.jobDetailCacheService.evict(id);
+    }
+
+    // JSON của job detail, đọc qua cache; null nếu không tồn tại.
+    // Không readOnly: cache load phải đọc từ primary, replica trễ sẽ bị cache lại cả TTL
+    public String fetchJobDetailJson(long id) {
+        return this.jobDetailCacheService.getJobDetail(id);
+    }
+
+    @Transactional(readOnly = true)
+    public ResultPaginationDTO fetchAll(Specification<Job> spec, Pageable pageable, String filter, boolean facets)
+            throws IdInvalidException {
+        ResultPaginationDTO rs = this.paginationService.fetchPage("jobs", Job.class, fetchCompany().and(spec),
+                pageable, filter, this::convertToResFetchJobDTO);
+        if (facets) {
+            // 1 query lấy id khớp filter, còn lại đếm trên bitmap trong bộ nhớ
+            List<Long> ids = this.paginationService.findIds(Job.class, spec);
+            rs.setFacets(this.fetchFacets(ids == null ? null : toBitSet(ids)));
+        }
+        return rs;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<JobFacetIndex.Facet, List<JobFacetIndex.FacetValue>> fetchFacets(BitSet match) {
+        return this.jobSearchService.facets(match, FACET_LIMIT);
+    }
+
+    private static BitSet toBitSet(List<Long> ids) {
+        BitSet bits = new BitSet();
+        ids.forEach(id -> bits.set(Math.toIntExact(id)));
+        return bits;
+    }
+
+    @Transactional(readOnly = true)
+    public ResultPaginationDTO fetchAllByCursor(Specification<Job> spec, Pageable pageable, String cursor)
+            throws IdInvalidException {
+        return this.paginationService.fetchByCursor(Job.class, fetchCompany().and(spec), pageable, cursor,
+                this::convertToResFetchJobDTO);
     }
 
-    public ResultPaginationDTO fetchAll(Specification<Job> spec, Pageable pageable) {
+    // join fetch company vào query lấy trang, bỏ qua với query count
+    private static Specification<Job> fetchCompany() {
+        return (root, query, cb) -> {
+            if (!Long.class.equals(query.getResultType()) && !long.class.equals(query.getResultType())) {
+                root.fetch("company", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
 
-        Page<Job> pageJob = this.jobRepository.findAll(spec, pageable);
+    /**
+     * Map 1 trang job sang DTO gọn. Company đã được join fetch sẵn, skills của cả
+     * trang được load bằng 1 query => tổng số query không phụ thuộc số dòng.
+     */
+    public List<ResFetchJobDTO> convertToResFetchJobDTO(List<Job> jobs) {
+        Map<Long, List<ResFetchJobDTO.SkillJob>> skillsByJob = new HashMap<>();
+        if (!jobs.isEmpty()) {
+            List<Long> ids = jobs.stream().map(Job::getId).collect(Collectors.toList());
+            for (Object[] row : this.jobRepository.findSkillsByJobIds(ids)) {
+                skillsByJob.computeIfAbsent((Long) row[0], k -> new ArrayList<>())
+                        .add(new ResFetchJobDTO.SkillJob((Long) row[1], (String) row[2]));
+            }
+        }
+
+        List<ResFetchJobDTO> result = new ArrayList<>(jobs.size());
+        for (Job job : jobs) {
+            ResFetchJobDTO dto = new ResFetchJobDTO();
+            dto.setId(job.getId());
+            dto.setName(job.getName());
+            dto.setLocation(job.getLocation());
+            dto.setSalary(job.getSalary());
+            dto.setQuantity(job.getQuantity());
+            dto.setLevel(job.getLevel());
+            dto.setStartDate(job.getStartDate());
+            dto.setEndDate(job.getEndDate());
+            dto.setActive(job.isActive());
+            dto.setCreatedAt(job.getCreatedAt());
+            dto.setUpdatedAt(job.getUpdatedAt());
+            dto.setCreatedBy(job.getCreatedBy());
+            dto.setUpdatedBy(job.getUpdatedBy());
+
+            Company company = job.getCompany();
+            if (company != null) {
+                dto.setCompany(new ResFetchJobDTO.CompanyJob(company.getId(), company.getName(), company.getLogo()));
+            }
+            dto.setSkills(skillsByJob.getOrDefault(job.getId(), List.of()));
+            result.add(dto);
+        }
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public ResultPaginationDTO search(String query, Pageable pageable, boolean facets) throws IdInvalidException {
+        // endpoint public: giới hạn độ sâu để heap xếp hạng và offset (int) luôn nhỏ
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_SEARCH_DEPTH) {
+            throw new IdInvalidException("Search chỉ hỗ trợ tới kết quả thứ " + MAX_SEARCH_DEPTH
+                    + ", hãy thu hẹp từ khóa tìm kiếm");
+        }
+        // match + rank trên index trong bộ nhớ, chỉ lấy id của 1 trang
+        JobSearchIndex.SearchResult searchResult = this.jobSearchService.search(
+                query, (int) pageable.getOffset(), pageable.getPageSize());
+
+        // hydrate đúng 1 trang từ DB rồi sắp xếp lại theo thứ hạng
+        List<Job> jobs = searchResult.ids().isEmpty()
+                ? List.of()
+                : this.jobRepository.findWithCompanyByIdIn(searchResult.ids());
+        Map<Long, Integer> rankOf = new HashMap<>();
+        List<Long> rankedIds = searchResult.ids();
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rankOf.put(rankedIds.get(i), i);
+        }
+        List<Job> rankedJobs = jobs.stream()
+                .sorted(Comparator.comparingInt(job -> rankOf.get(job.getId())))
+                .collect(Collectors.toList());
 
         ResultPaginationDTO rs = new ResultPaginationDTO();
         ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
@@ -157,14 +293,16 @@ public class JobService {
         mt.setPage(pageable.getPageNumber() + 1);
         mt.setPageSize(pageable.getPageSize());
 
-        mt.setPages(pageJob.getTotalPages());
-        mt.setTotal(pageJob.getTotalElements());
+        mt.setPages((int) Math.ceil((double) searchResult.total() / pageable.getPageSize()));
+        mt.setTotal(searchResult.total());
 
         rs.setMeta(mt);
 
-        rs.setResult(pageJob.getContent());
+        rs.setResult(this.convertToResFetchJobDTO(rankedJobs));
+        if (facets) {
+            rs.setFacets(this.fetchFacets(this.jobSearchService.match(query)));
+        }
 
         return rs;
-
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+package vn.hoangtung.jobfind.service;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import vn.hoangtung.jobfind.util.error.TooManyRequestsException;
+
+/**
+ * Giới hạn số lần đăng nhập sai theo tài khoản và theo IP trong một cửa sổ
+ * trượt (ước lượng từ 2 cửa sổ cố định liền nhau). Bộ đếm chia thành nhiều
+ * stripe, mỗi stripe một lock, nên các request login không tranh nhau 1 lock chung.
+ */
+@Service
+public class LoginThrottleService {
+
+    private static final int STRIPES = 64;
+    private static final int MAX_KEYS_PER_STRIPE = 4096;
+
+    private static final class Window {
+        long index;
+        int current;
+        int previous;
+    }
+
+    private static final class Stripe {
+        final Map<String, Window> windows = new HashMap<>();
+    }
+
+    private final Stripe[] accountStripes = newStripes();
+    private final Stripe[] ipStripes = newStripes();
+    private final long windowMillis;
+    private final int maxPerAccount;
+    private final int maxPerIp;
+    private final Counter accountThrottled;
+    private final Counter ipThrottled;
+
+    public LoginThrottleService(
+            MeterRegistry meterRegistry,
+            @Value("${hoangtung.login-throttle.window-seconds:300}") long windowSeconds,
+            @Value("${hoangtung.login-throttle.max-failures-per-account:5}") int maxPerAccount,
+            @Value("${hoangtung.login-throttle.max-failures-per-ip:50}") int maxPerIp) {
+        this.windowMillis = windowSeconds * 1000;
+        this.maxPerAccount = maxPerAccount;
+        this.maxPerIp = maxPerIp;
+        this.accountThrottled = meterRegistry.counter("auth.login.throttled", "scope", "account");
+        this.ipThrottled = meterRegistry.counter("auth.login.throttled", "scope", "ip");
+    }
+
+    // gọi trước khi xác thực (trước cả BCrypt)
+    public void check(String username, String ip) {
+        long now = System.currentTimeMillis();
+        if (this.estimate(this.accountStripes, accountKey(username), now) >= this.maxPerAccount) {
+            this.accountThrottled.increment();
+            throw new TooManyRequestsException("Đăng nhập sai quá nhiều lần, vui lòng thử lại sau.");
+        }
+        if (ip != null && this.estimate(this.ipStripes, ip, now) >= this.maxPerIp) {
+            this.ipThrottled.increment();
+            throw new TooManyRequestsException("Quá nhiều yêu cầu đăng nhập, vui lòng thử lại sau.");
+        }
+    }
+
+    public void recordFailure(String username, String ip) {
+        long now = System.currentTimeMillis();
+        this.increment(this.accountStripes, accountKey(username), now);
+        if (ip != null) {
+            this.increment(this.ipStripes, ip, now);
+        }
+    }
+
+    // đăng nhập đúng: xóa bộ đếm của tài khoản (bộ đếm IP giữ nguyên)
+    public void reset(String username) {
+        String key = accountKey(username);
+        Stripe stripe = stripe(this.accountStripes, key);
+        synchronized (stripe) {
+            stripe.windows.remove(key);
+        }
+    }
+
+    private double estimate(Stripe[] stripes, String key, long now) {
+        Stripe stripe = stripe(stripes, key);
+        synchronized (stripe) {
+            Window window = stripe.windows.get(key);
+            if (window == null) {
+                return 0;
+            }
+            this.roll(window, now);
+            // phần còn nằm trong cửa sổ trượt của cửa sổ trước
+            double elapsed = (double) (now % this.windowMillis) / this.windowMillis;
+            return window.previous * (1 - elapsed) + window.current;
+        }
+    }
+
+    private void increment(Stripe[] stripes, String key, long now) {
+        Stripe stripe = stripe(stripes, key);
+        synchronized (stripe) {
+            if (stripe.windows.size() >= MAX_KEYS_PER_STRIPE) {
+                long index = now / this.windowMillis;
+                stripe.windows.values().removeIf(w -> w.index < index - 1);
+            }
+            Window window = stripe.windows.computeIfAbsent(key, k -> new Window());
+            this.roll(window, now);
+            window.current++;
+        }
+    }
+
+    private void roll(Window window, long now) {
+        long index = now / this.windowMillis;
+        if (window.index == index) {
+            return;
+        }
+        window.previous = window.index == index - 1 ? window.current : 0;
+        window.current = 0;
+        window.index = index;
+    }
+
+    private static String accountKey(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Stripe stripe(Stripe[] stripes, String key) {
+        return stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private static Stripe[] newStripes() {
+        Stripe[] stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        return stripes;
+    }
+}
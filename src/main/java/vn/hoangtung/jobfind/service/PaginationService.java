@@ -0,0 +1,362 @@
+package vn.hoangtung.jobfind.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Table;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import vn.hoangtung.jobfind.domain.response.ResultPaginationDTO;
+import vn.hoangtung.jobfind.util.KeysetCursor;
+import vn.hoangtung.jobfind.util.constant.CountStrategyEnum;
+import vn.hoangtung.jobfind.util.error.IdInvalidException;
+
+@Service
+public class PaginationService {
+
+    private static final int MAX_CACHED_COUNTS = 10_000;
+
+    private final EntityManager entityManager;
+    private final Environment environment;
+
+    @Value("${hoangtung.pagination.count-cache-ttl-seconds:30}")
+    private long countCacheTtlSeconds;
+
+    @Value("${hoangtung.pagination.estimate-threshold:100000}")
+    private long estimateThreshold;
+
+    // key = endpoint|filter đã chuẩn hóa
+    private final Map<String, CachedCount> countCache = new ConcurrentHashMap<>();
+
+    private record CachedCount(long total, long expiresAt) {
+    }
+
+    private record CountResult(long total, boolean approximate) {
+    }
+
+    public PaginationService(EntityManager entityManager, Environment environment) {
+        this.entityManager = entityManager;
+        this.environment = environment;
+    }
+
+    /**
+     * Phân trang theo page number, nhưng total được tính theo count strategy cấu
+     * hình riêng cho từng endpoint (hoangtung.pagination.count-strategy.<endpoint>):
+     * EXACT = COUNT(*) mỗi request, CACHED = cache COUNT(*) theo filter trong N
+     * giây, ESTIMATED = lấy số dòng từ thống kê bảng của MySQL khi không có filter
+     * và bảng đủ lớn. Meta.approximate = true khi total không phải số đếm mới nhất.
+     */
+    public <T> ResultPaginationDTO fetchPage(
+            String endpoint,
+            Class<T> domainClass,
+            Specification<T> spec,
+            Pageable pageable,
+            String filter,
+            Function<List<T>, ?> mapper) throws IdInvalidException {
+
+        // setFirstResult nhận int: page * size quá lớn sẽ bị cắt thành offset sai
+        if (pageable.getOffset() > Integer.MAX_VALUE) {
+            throw new IdInvalidException("Trang " + (pageable.getPageNumber() + 1)
+                    + " vượt quá giới hạn phân trang, hãy dùng cursor");
+        }
+
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root);
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        List<T> content = this.entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        CountResult count;
+        if (content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty())) {
+            // trang cuối: tự suy ra total, không cần COUNT (giống PageableExecutionUtils)
+            count = new CountResult(pageable.getOffset() + content.size(), false);
+        } else {
+            count = this.count(endpoint, domainClass, spec, filter, predicate == null);
+        }
+
+        ResultPaginationDTO rs = new ResultPaginationDTO();
+        ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
+
+        mt.setPage(pageable.getPageNumber() + 1);
+        mt.setPageSize(pageable.getPageSize());
+
+        mt.setPages((int) Math.ceil((double) count.total() / pageable.getPageSize()));
+        mt.setTotal(count.total());
+        mt.setApproximate(count.approximate());
+
+        rs.setMeta(mt);
+        rs.setResult(mapper.apply(content));
+        return rs;
+    }
+
+    /**
+     * Toàn bộ id khớp spec (không phân trang), dùng để giao với các bitmap trong
+     * bộ nhớ. Trả về null khi spec không có điều kiện nào (= tất cả).
+     */
+    public <T> List<Long> findIds(Class<T> domainClass, Specification<T> spec) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(domainClass);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate == null) {
+            return null;
+        }
+        query.where(predicate);
+        query.select(root.get("id"));
+        query.orderBy(List.of());
+        return this.entityManager.createQuery(query).getResultList();
+    }
+
+    public CountStrategyEnum getCountStrategy(String endpoint) {
+        return this.environment.getProperty("hoangtung.pagination.count-strategy." + endpoint,
+                CountStrategyEnum.class, CountStrategyEnum.EXACT);
+    }
+
+    private <T> CountResult count(String endpoint, Class<T> domainClass, Specification<T> spec, String filter,
+            boolean unfiltered) {
+        CountStrategyEnum strategy = this.getCountStrategy(endpoint);
+
+        if (strategy == CountStrategyEnum.ESTIMATED) {
+            if (unfiltered) {
+                Long estimate = this.estimateRows(domainClass);
+                if (estimate != null && estimate >= this.estimateThreshold) {
+                    return new CountResult(estimate, true);
+                }
+                return new CountResult(this.exactCount(domainClass, spec), false);
+            }
+            // có filter thì thống kê bảng vô nghĩa => dùng count có cache
+            strategy = CountStrategyEnum.CACHED;
+        }
+
+        if (strategy == CountStrategyEnum.CACHED) {
+            String key = endpoint + "|" + normalizeFilter(filter);
+            long now = System.currentTimeMillis();
+            CachedCount cached = this.countCache.get(key);
+            if (cached != null && cached.expiresAt() > now) {
+                return new CountResult(cached.total(), true);
+            }
+            long total = this.exactCount(domainClass, spec);
+            if (this.countCache.size() >= MAX_CACHED_COUNTS) {
+                this.countCache.values().removeIf(c -> c.expiresAt() <= now);
+                if (this.countCache.size() >= MAX_CACHED_COUNTS) {
+                    this.countCache.clear();
+                }
+            }
+            this.countCache.put(key, new CachedCount(total, now + this.countCacheTtlSeconds * 1000));
+            return new CountResult(total, false);
+        }
+
+        return new CountResult(this.exactCount(domainClass, spec), false);
+    }
+
+    private <T> long exactCount(Class<T> domainClass, Specification<T> spec) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(domainClass);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(query.isDistinct() ? cb.countDistinct(root) : cb.count(root));
+        // spec có thể thêm order by, count không cần
+        query.orderBy(List.of());
+        return this.entityManager.createQuery(query).getSingleResult();
+    }
+
+    // số dòng ước lượng từ thống kê InnoDB, null nếu không đọc được
+    private Long estimateRows(Class<?> domainClass) {
+        Table table = domainClass.getAnnotation(Table.class);
+        if (table == null || table.name().isEmpty()) {
+            return null;
+        }
+        try {
+            Object rows = this.entityManager.createNativeQuery(
+                    "select TABLE_ROWS from information_schema.TABLES where TABLE_SCHEMA = database() and TABLE_NAME = :name")
+                    .setParameter("name", table.name())
+                    .getSingleResult();
+            return rows == null ? null : ((Number) rows).longValue();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String normalizeFilter(String filter) {
+        if (filter == null) {
+            return "";
+        }
+        return filter.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Keyset (cursor) pagination: WHERE (sortKey, id) "sau" cursor, ORDER BY
+     * sortKey, id, LIMIT size + 1. Không có OFFSET và không có COUNT(*), nên trang
+     * thứ 1000 tốn y như trang 1.
+     * Chỉ hỗ trợ sort theo 1 thuộc tính đơn (không lồng), id luôn được dùng làm
+     * tie-breaker. Cursor rỗng = trang đầu tiên.
+     */
+    public <T> ResultPaginationDTO fetchByCursor(
+            Class<T> domainClass,
+            Specification<T> spec,
+            Pageable pageable,
+            String cursor,
+            Function<List<T>, ?> mapper) throws IdInvalidException {
+
+        Sort.Order order = pageable.getSort().isSorted()
+                ? pageable.getSort().iterator().next()
+                : Sort.Order.desc("id");
+        String property = order.getProperty();
+        if (property.contains(".")) {
+            throw new IdInvalidException("Cursor pagination chỉ hỗ trợ sort theo field đơn, không hỗ trợ: " + property);
+        }
+        this.checkSortable(domainClass, property);
+        Sort sort = "id".equals(property)
+                ? Sort.by(order)
+                : Sort.by(order, new Sort.Order(order.getDirection(), "id"));
+
+        KeysetCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            after = KeysetCursor.decode(cursor);
+            // cursor của chiều sort ngược lại sẽ trả về sai tập dòng
+            if (!after.property().equals(property) || after.descending() != order.isDescending()) {
+                throw new IdInvalidException("Cursor không khớp với sort hiện tại (" + property + ","
+                        + order.getDirection().name().toLowerCase() + ")");
+            }
+        }
+
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (after != null) {
+            Predicate afterCursor = this.afterCursor(root, cb, after);
+            predicate = predicate == null ? afterCursor : cb.and(predicate, afterCursor);
+        }
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root);
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        int size = pageable.getPageSize();
+        List<T> rows = this.entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList();
+
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+
+        ResultPaginationDTO rs = new ResultPaginationDTO();
+        ResultPaginationDTO.CursorMeta mt = new ResultPaginationDTO.CursorMeta();
+        mt.setPageSize(size);
+        mt.setHasNext(hasNext);
+        if (hasNext) {
+            T last = content.get(content.size() - 1);
+            BeanWrapperImpl wrapper = new BeanWrapperImpl(last);
+            Object lastValue = wrapper.getPropertyValue(property);
+            long lastId = ((Number) wrapper.getPropertyValue("id")).longValue();
+            mt.setNextCursor(
+                    new KeysetCursor(property, order.isDescending(), toCursorValue(lastValue), lastId).encode());
+        }
+
+        rs.setMeta(mt);
+        rs.setResult(mapper.apply(content));
+        return rs;
+    }
+
+    // field không có trong entity, hoặc là quan hệ / collection => 400, không để QueryUtils.toOrders ném 500
+    private <T> void checkSortable(Class<T> domainClass, String property) throws IdInvalidException {
+        Attribute<? super T, ?> attribute;
+        try {
+            attribute = this.entityManager.getMetamodel().entity(domainClass).getAttribute(property);
+        } catch (IllegalArgumentException e) {
+            throw new IdInvalidException("Không thể sort theo field: " + property);
+        }
+        if (attribute.isCollection() || attribute.isAssociation()) {
+            throw new IdInvalidException("Không thể sort theo field: " + property);
+        }
+    }
+
+    // MySQL: NULL đứng đầu khi ASC, đứng cuối khi DESC
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private <T> Predicate afterCursor(Root<T> root, CriteriaBuilder cb, KeysetCursor after)
+            throws IdInvalidException {
+        boolean desc = after.descending();
+        Path<Long> id = root.get("id");
+        Predicate idAfter = desc ? cb.lessThan(id, after.id()) : cb.greaterThan(id, after.id());
+        if ("id".equals(after.property())) {
+            return idAfter;
+        }
+
+        Path<Comparable> path;
+        try {
+            path = root.get(after.property());
+        } catch (IllegalArgumentException e) {
+            throw new IdInvalidException("Không thể sort theo field: " + after.property());
+        }
+
+        if (after.value() == null) {
+            Predicate nullTie = cb.and(cb.isNull(path), idAfter);
+            return desc ? nullTie : cb.or(nullTie, cb.isNotNull(path));
+        }
+
+        Comparable value = fromCursorValue(after.value(), path.getJavaType());
+        Predicate strict = desc ? cb.lessThan(path, value) : cb.greaterThan(path, value);
+        Predicate next = cb.or(strict, cb.and(cb.equal(path, value), idAfter));
+        return desc ? cb.or(next, cb.isNull(path)) : next;
+    }
+
+    private static String toCursorValue(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Enum<?> e) {
+            return e.name();
+        }
+        return value.toString();
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static Comparable fromCursorValue(String value, Class<?> type) throws IdInvalidException {
+        try {
+            if (Instant.class.equals(type)) {
+                return Instant.parse(value);
+            }
+            if (type.isEnum()) {
+                return Enum.valueOf((Class<? extends Enum>) type, value);
+            }
+            return (Comparable) DefaultConversionService.getSharedInstance().convert(value, type);
+        } catch (RuntimeException e) {
+            throw new IdInvalidException("Cursor không hợp lệ");
+        }
+    }
+}
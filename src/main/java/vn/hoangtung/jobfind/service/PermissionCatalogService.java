@@ -0,0 +1,173 @@
+package vn.hoangtung.jobfind.service;
+
+import java.lang.reflect.Method;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import vn.hoangtung.jobfind.repository.PermissionRepository;
+import vn.hoangtung.jobfind.util.annotation.ApiMessage;
+
+/**
+ * Danh mục route lấy tự động từ RequestMappingHandlerMapping lúc khởi động.
+ * Mỗi cặp (HTTP method, path pattern) được gán một route id nhỏ, liên tục; mỗi
+ * handler method tra ra route id bằng 1 lần tra map + index mảng, nên bảng quyền
+ * của role chỉ cần là BitSet(route id). Danh mục cũng được đồng bộ vào bảng
+ * permissions (insert batch các route còn thiếu).
+ */
+@Service
+public class PermissionCatalogService implements SmartInitializingSingleton {
+
+    private static final String API_PREFIX = "/api/v1/";
+    private static final String PUBLIC_PREFIX = "/api/v1/auth/";
+    private static final RequestMethod[] METHODS = RequestMethod.values();
+
+    private record Route(String method, String apiPath, String name, String module) {
+    }
+
+    private final ApplicationContext applicationContext;
+    private final PermissionRepository permissionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // chỉ ghi 1 lần lúc khởi động, sau đó chỉ đọc
+    private volatile Map<String, Integer> routeIdByKey = Map.of();
+    // handler method -> route id theo RequestMethod.ordinal(), -1 nếu không có
+    // null khi method có nhiều pattern (tra theo key)
+    private volatile Map<Method, int[]> routeIdsByHandler = Map.of();
+    private volatile List<Route> routes = List.of();
+
+    public PermissionCatalogService(
+            ApplicationContext applicationContext,
+            PermissionRepository permissionRepository,
+            JdbcTemplate jdbcTemplate) {
+        this.applicationContext = applicationContext;
+        this.permissionRepository = permissionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // lấy handler mapping sau khi mọi singleton đã tạo (tránh vòng phụ thuộc với interceptor)
+    @Override
+    public void afterSingletonsInstantiated() {
+        RequestMappingHandlerMapping handlerMapping = this.applicationContext
+                .getBean("requestMappingHandlerMapping", RequestMappingHandlerMapping.class);
+
+        Map<String, Integer> ids = new HashMap<>();
+        Map<Method, int[]> byHandler = new HashMap<>();
+        List<Route> discovered = new ArrayList<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+            RequestMappingInfo info = entry.getKey();
+            Method method = entry.getValue().getMethod();
+            Set<String> patterns = info.getPatternValues();
+            Set<RequestMethod> httpMethods = info.getMethodsCondition().getMethods();
+            boolean ambiguous = patterns.size() > 1 || byHandler.containsKey(method);
+
+            int[] slots = new int[METHODS.length];
+            Arrays.fill(slots, -1);
+            for (String pattern : patterns) {
+                if (!pattern.startsWith(API_PREFIX) || pattern.startsWith(PUBLIC_PREFIX)) {
+                    continue;
+                }
+                for (RequestMethod httpMethod : httpMethods) {
+                    String key = RolePermissionCache.key(httpMethod.name(), pattern);
+                    Integer id = ids.get(key);
+                    if (id == null) {
+                        id = discovered.size();
+                        ids.put(key, id);
+                        discovered.add(new Route(httpMethod.name(), pattern, name(entry.getValue(), httpMethod, pattern),
+                                module(pattern)));
+                    }
+                    slots[httpMethod.ordinal()] = id;
+                }
+            }
+            byHandler.put(method, ambiguous ? null : slots);
+        }
+
+        this.routeIdByKey = Map.copyOf(ids);
+        this.routeIdsByHandler = new HashMap<>(byHandler);
+        this.routes = List.copyOf(discovered);
+        System.out.println(">>> PERMISSION CATALOG: " + discovered.size() + " routes");
+    }
+
+    public int size() {
+        return this.routes.size();
+    }
+
+    // -1 nếu không phải route trong danh mục
+    public int routeId(String method, String apiPath) {
+        Integer id = this.routeIdByKey.get(RolePermissionCache.key(method, apiPath));
+        return id != null ? id : -1;
+    }
+
+    public int routeId(Object handler, String method, String apiPath) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            int[] slots = this.routeIdsByHandler.get(handlerMethod.getMethod());
+            if (slots != null) {
+                try {
+                    return slots[RequestMethod.valueOf(method).ordinal()];
+                } catch (IllegalArgumentException e) {
+                    return -1;
+                }
+            }
+        }
+        return this.routeId(method, apiPath);
+    }
+
+    /**
+     * Insert (1 batch) các route chưa có trong bảng permissions. Permission đã có
+     * (kể cả đã đổi tên qua API) giữ nguyên.
+     */
+    public int syncPermissions() {
+        Set<String> existing = new HashSet<>();
+        for (Object[] row : this.permissionRepository.findAllKeys()) {
+            existing.add(RolePermissionCache.key((String) row[0], (String) row[1]));
+        }
+        Map<String, Route> missing = new LinkedHashMap<>();
+        for (Route route : this.routes) {
+            String key = RolePermissionCache.key(route.method(), route.apiPath());
+            if (!existing.contains(key)) {
+                missing.put(key, route);
+            }
+        }
+        if (missing.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = missing.values().stream()
+                .map(r -> new Object[] { r.name(), r.apiPath(), r.method(), r.module(), now, "" })
+                .toList();
+        this.jdbcTemplate.batchUpdate(
+                "insert into permissions (name, api_path, method, module, created_at, created_by) "
+                        + "values (?, ?, ?, ?, ?, ?)",
+                rows);
+        return rows.size();
+    }
+
+    private static String name(HandlerMethod handlerMethod, RequestMethod httpMethod, String pattern) {
+        ApiMessage message = handlerMethod.getMethodAnnotation(ApiMessage.class);
+        return message != null ? message.value() : httpMethod.name() + " " + pattern;
+    }
+
+    // "/api/v1/jobs/{id}" -> "JOBS"
+    private static String module(String pattern) {
+        String rest = pattern.substring(API_PREFIX.length());
+        int slash = rest.indexOf('/');
+        return (slash >= 0 ? rest.substring(0, slash) : rest).toUpperCase(Locale.ROOT);
+    }
+}
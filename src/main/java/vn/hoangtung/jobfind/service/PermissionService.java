@@ -1,5 +1,6 @@
 package vn.hoangtung.jobfind.service;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
@@ -10,13 +11,19 @@ import org.springframework.stereotype.Service;
 import vn.hoangtung.jobfind.domain.Permission;
 import vn.hoangtung.jobfind.domain.response.ResultPaginationDTO;
 import vn.hoangtung.jobfind.repository.PermissionRepository;
+import vn.hoangtung.jobfind.repository.RoleRepository;
 
 @Service
 public class PermissionService {
     private final PermissionRepository permissionRepository;
+    private final RoleRepository roleRepository;
+    private final RolePermissionCache rolePermissionCache;
 
-    public PermissionService(PermissionRepository permissionRepository) {
+    public PermissionService(PermissionRepository permissionRepository, RoleRepository roleRepository,
+            RolePermissionCache rolePermissionCache) {
         this.permissionRepository = permissionRepository;
+        this.roleRepository = roleRepository;
+        this.rolePermissionCache = rolePermissionCache;
     }
 
     public boolean isPermissionExist(Permission p) {
@@ -47,6 +54,9 @@ public class PermissionService {
 
             // update
             permissionDB = this.permissionRepository.save(permissionDB);
+            // permission có thể thuộc nhiều role
+            this.bumpRoleVersions(this.roleRepository.findIdsByPermissionId(permissionDB.getId()));
+            this.rolePermissionCache.invalidateAllRoles();
             return permissionDB;
         }
         return null;
@@ -56,10 +66,19 @@ public class PermissionService {
         // delete permission_role
         Optional<Permission> permissionOptional = this.permissionRepository.findById(id);
         Permission currentPermission = permissionOptional.get();
+        List<Long> roleIds = this.roleRepository.findIdsByPermissionId(id);
         currentPermission.getRoles().forEach(role -> role.getPermissions().remove(currentPermission));
 
         // delete permission
         this.permissionRepository.delete(currentPermission);
+        this.bumpRoleVersions(roleIds);
+        this.rolePermissionCache.invalidateAllRoles();
+    }
+
+    private void bumpRoleVersions(List<Long> roleIds) {
+        if (!roleIds.isEmpty()) {
+            this.roleRepository.incrementPermissionVersion(roleIds);
+        }
     }
 
     public ResultPaginationDTO getPermissions(Specification<Permission> spec, Pageable pageable) {
@@ -0,0 +1,125 @@
+package vn.hoangtung.jobfind.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import vn.hoangtung.jobfind.domain.RefreshToken;
+import vn.hoangtung.jobfind.repository.RefreshTokenRepository;
+
+/**
+ * Kho refresh token: bảng refresh_tokens tra theo SHA-256 của token (index
+ * unique), có cache trong bộ nhớ phía trước. Mọi thay đổi là UPDATE/DELETE có
+ * điều kiện, không ghi lại cả dòng User như trước.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final int DEVICE_MAX_LENGTH = 255;
+
+    private record Session(String email, Instant expiresAt) {
+    }
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    // hash -> phiên còn hiệu lực
+    private final Cache<String, Session> cache;
+
+    @Value("${hoangtung.jwt.refresh-token-validity-in-seconds}")
+    private long refreshTokenExpiration;
+
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            @Value("${hoangtung.refresh-token.cache-size:10000}") long cacheSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+    }
+
+    public static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void create(String token, String email, String sessionId, String device) {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setEmail(email);
+        refreshToken.setSessionId(sessionId);
+        if (device != null && device.length() > DEVICE_MAX_LENGTH) {
+            device = device.substring(0, DEVICE_MAX_LENGTH);
+        }
+        refreshToken.setDevice(device);
+        refreshToken.setExpiresAt(this.expiresAt());
+        this.refreshTokenRepository.save(refreshToken);
+        this.cache.put(refreshToken.getTokenHash(), new Session(email, refreshToken.getExpiresAt()));
+    }
+
+    public boolean isActive(String token, String email) {
+        String tokenHash = hash(token);
+        Session session = this.cache.getIfPresent(tokenHash);
+        if (session == null) {
+            Optional<RefreshToken> stored = this.refreshTokenRepository.findByTokenHash(tokenHash);
+            if (stored.isEmpty()) {
+                return false;
+            }
+            session = new Session(stored.get().getEmail(), stored.get().getExpiresAt());
+            this.cache.put(tokenHash, session);
+        }
+        return session.email().equals(email) && session.expiresAt().isAfter(Instant.now());
+    }
+
+    /**
+     * Thay token cũ bằng token mới trong cùng phiên. false nếu token cũ đã bị
+     * dùng / thu hồi (vd 2 request refresh đồng thời, chỉ 1 request thắng).
+     */
+    public boolean rotate(String oldToken, String newToken, String email) {
+        String oldHash = hash(oldToken);
+        String newHash = hash(newToken);
+        Instant expiresAt = this.expiresAt();
+        this.cache.invalidate(oldHash);
+        if (this.refreshTokenRepository.rotate(oldHash, newHash, email, expiresAt, Instant.now()) != 1) {
+            return false;
+        }
+        this.cache.put(newHash, new Session(email, expiresAt));
+        return true;
+    }
+
+    public void revoke(String token) {
+        String tokenHash = hash(token);
+        this.cache.invalidate(tokenHash);
+        this.refreshTokenRepository.deleteByHash(tokenHash);
+    }
+
+    // đăng xuất khỏi mọi thiết bị
+    public void revokeAll(String email) {
+        this.cache.asMap().values().removeIf(session -> session.email().equals(email));
+        this.refreshTokenRepository.deleteByEmail(email);
+    }
+
+    @Scheduled(cron = "${hoangtung.refresh-token.purge-cron:0 0 3 * * *}")
+    public void purgeExpired() {
+        int deleted = this.refreshTokenRepository.deleteExpired(Instant.now());
+        System.out.println(">>> REFRESH TOKEN: purged " + deleted + " expired sessions");
+    }
+
+    private Instant expiresAt() {
+        return Instant.now().plusSeconds(this.refreshTokenExpiration);
+    }
+}
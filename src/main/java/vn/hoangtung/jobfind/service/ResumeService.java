@@ -9,6 +9,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.turkraft.springfilter.builder.FilterBuilder;
 import com.turkraft.springfilter.converter.FilterSpecification;
@@ -27,6 +28,7 @@ import vn.hoangtung.jobfind.repository.JobRepository;
 import vn.hoangtung.jobfind.repository.ResumeRepository;
 import vn.hoangtung.jobfind.repository.UserRepository;
 import vn.hoangtung.jobfind.util.SecurityUtil;
+import vn.hoangtung.jobfind.util.error.IdInvalidException;
 
 @Service
 public class ResumeService {
@@ -43,14 +45,17 @@ public class ResumeService {
     private final ResumeRepository resumeRepository;
     private final UserRepository userRepository;
     private final JobRepository jobRepository;
+    private final PaginationService paginationService;
 
     public ResumeService(
             ResumeRepository resumeRepository,
             UserRepository userRepository,
-            JobRepository jobRepository) {
+            JobRepository jobRepository,
+            PaginationService paginationService) {
         this.resumeRepository = resumeRepository;
         this.userRepository = userRepository;
         this.jobRepository = jobRepository;
+        this.paginationService = paginationService;
     }
 
     public Optional<Resume> fetchById(long id) {
@@ -117,29 +122,22 @@ public class ResumeService {
         return res;
     }
 
-    public ResultPaginationDTO fetchAllResume(Specification<Resume> spec, Pageable pageable) {
-        Page<Resume> pageResume = this.resumeRepository.findAll(spec, pageable);
-        ResultPaginationDTO rs = new ResultPaginationDTO();
-        ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
-
-        mt.setPage(pageable.getPageNumber() + 1);
-        mt.setPageSize(pageable.getPageSize());
-
-        mt.setPages(pageResume.getTotalPages());
-        mt.setTotal(pageResume.getTotalElements());
-
-        rs.setMeta(mt);
-
+    @Transactional(readOnly = true)
+    public ResultPaginationDTO fetchAllResume(Specification<Resume> spec, Pageable pageable, String filter)
+            throws IdInvalidException {
         // remove sensitive data
-        List<ResFetchResumeDTO> listResume = pageResume.getContent()
-                .stream().map(item -> this.getResume(item))
-                .collect(Collectors.toList());
-
-        rs.setResult(listResume);
+        return this.paginationService.fetchPage("resumes", Resume.class, spec, pageable, filter,
+                resumes -> resumes.stream().map(item -> this.getResume(item)).collect(Collectors.toList()));
+    }
 
-        return rs;
+    @Transactional(readOnly = true)
+    public ResultPaginationDTO fetchAllResumeByCursor(Specification<Resume> spec, Pageable pageable, String cursor)
+            throws IdInvalidException {
+        return this.paginationService.fetchByCursor(Resume.class, spec, pageable, cursor,
+                resumes -> resumes.stream().map(item -> this.getResume(item)).collect(Collectors.toList()));
     }
 
+    @Transactional(readOnly = true)
     public ResultPaginationDTO fetchResumeByUser(Pageable pageable) {
         // query builder
         String email = SecurityUtil.getCurrentUserLogin().isPresent() == true
@@ -0,0 +1,168 @@
+package vn.hoangtung.jobfind.service;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import vn.hoangtung.jobfind.repository.RoleRepository;
+import vn.hoangtung.jobfind.repository.UserRepository;
+
+/**
+ * Bảng quyền đã "compile" cho PermissionInterceptor: mỗi role id -> (version,
+ * Set bất biến các key "METHOD apiPath"). Role của user luôn lấy từ DB qua cache
+ * email -> role có TTL ngắn; version trong token chỉ dùng khi auth epoch của token
+ * khớp DB, để load lại bảng khi token mang version mới hơn bản đang giữ.
+ * Bảng quyền cũng chỉ sống ttl giây: node khác sửa permission của role thì node
+ * này thấy chậm nhất sau ttl, kể cả khi token không mang version mới.
+ * Mỗi lần invalidate tăng generation; kết quả load song song với invalidate (đọc
+ * dữ liệu cũ) sẽ bị bỏ, không ghi đè lại vào cache.
+ */
+@Service
+public class RolePermissionCache {
+
+    public static final long NO_ROLE = -1;
+
+    // authEpoch: cột users.auth_epoch, tăng mỗi khi role của user đổi (token cũ hết được tin)
+    public record UserAuth(long userId, long roleId, long authEpoch) {
+    }
+
+    // đánh dấu "email không còn user" trong cache
+    private static final UserAuth MISSING_USER = new UserAuth(-1, NO_ROLE, -1);
+
+    // routes: BitSet theo route id của PermissionCatalogService
+    private record RoleTable(long version, Set<String> permissions, BitSet routes) {
+    }
+
+    private final RoleRepository roleRepository;
+    private final UserRepository userRepository;
+
+    private final Cache<Long, RoleTable> tablesByRole;
+    private final Cache<String, UserAuth> userAuthByEmail;
+    private final AtomicLong roleGeneration = new AtomicLong();
+    private final AtomicLong userGeneration = new AtomicLong();
+
+    private final PermissionCatalogService permissionCatalogService;
+
+    public RolePermissionCache(RoleRepository roleRepository, UserRepository userRepository,
+            PermissionCatalogService permissionCatalogService,
+            @Value("${hoangtung.cache.user-role.max-size:100000}") long userMaxSize,
+            @Value("${hoangtung.cache.user-role.ttl-seconds:30}") long userTtlSeconds,
+            @Value("${hoangtung.cache.role-permission.ttl-seconds:30}") long roleTtlSeconds) {
+        this.roleRepository = roleRepository;
+        this.userRepository = userRepository;
+        this.permissionCatalogService = permissionCatalogService;
+        this.tablesByRole = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(roleTtlSeconds))
+                .build();
+        this.userAuthByEmail = Caffeine.newBuilder()
+                .maximumSize(userMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(userTtlSeconds))
+                .build();
+    }
+
+    public static String key(String method, String apiPath) {
+        return method + " " + apiPath;
+    }
+
+    // minVersion: version trong token; bảng cũ hơn => load lại
+    public boolean isAllowed(long roleId, long minVersion, String method, String apiPath) {
+        return this.table(roleId, minVersion).permissions().contains(key(method, apiPath));
+    }
+
+    // route id từ PermissionCatalogService: kiểm tra quyền chỉ là 1 phép test bit
+    public boolean isAllowed(long roleId, long minVersion, int routeId) {
+        return this.table(roleId, minVersion).routes().get(routeId);
+    }
+
+    /**
+     * email -> (user id, role id, auth epoch), null nếu user không còn tồn tại.
+     * Entry chỉ sống ttl giây: node khác (hoặc trước khi restart) đổi role / epoch
+     * trong DB thì tối đa sau ttl node này cũng thấy.
+     */
+    public UserAuth getUserAuth(String email) {
+        UserAuth cached = this.userAuthByEmail.getIfPresent(email);
+        if (cached != null) {
+            return cached == MISSING_USER ? null : cached;
+        }
+        long generation = this.userGeneration.get();
+        List<Object[]> rows = this.userRepository.findRoleIdByEmail(email);
+        UserAuth loaded = rows.isEmpty() ? MISSING_USER
+                : new UserAuth((Long) rows.get(0)[0], rows.get(0)[1] == null ? NO_ROLE : (Long) rows.get(0)[1],
+                        (Long) rows.get(0)[2]);
+        if (this.userGeneration.get() == generation) {
+            this.userAuthByEmail.asMap().putIfAbsent(email, loaded);
+            if (this.userGeneration.get() != generation) {
+                this.userAuthByEmail.asMap().remove(email, loaded);
+            }
+        }
+        return loaded == MISSING_USER ? null : loaded;
+    }
+
+    public void invalidateRole(long roleId) {
+        this.roleGeneration.incrementAndGet();
+        this.tablesByRole.invalidate(roleId);
+    }
+
+    public void invalidateAllRoles() {
+        this.roleGeneration.incrementAndGet();
+        this.tablesByRole.invalidateAll();
+    }
+
+    public void invalidateUser(String email) {
+        if (email == null) {
+            return;
+        }
+        this.userGeneration.incrementAndGet();
+        this.userAuthByEmail.invalidate(email);
+    }
+
+    public void invalidateAllUsers() {
+        this.userGeneration.incrementAndGet();
+        this.userAuthByEmail.invalidateAll();
+    }
+
+    private RoleTable table(long roleId, long minVersion) {
+        RoleTable table = this.tablesByRole.getIfPresent(roleId);
+        if (table == null || table.version() < minVersion) {
+            table = this.load(roleId);
+        }
+        return table;
+    }
+
+    private RoleTable load(long roleId) {
+        long generation = this.roleGeneration.get();
+        // đọc version trước: nếu bị bump giữa 2 query thì bảng chỉ bị coi là "cũ" và load lại lần sau
+        Optional<Long> version = this.roleRepository.findPermissionVersionById(roleId);
+        Set<String> keys = new HashSet<>();
+        BitSet routes = new BitSet(this.permissionCatalogService.size());
+        if (version.isPresent()) {
+            for (Object[] row : this.roleRepository.findPermissionKeysByRoleId(roleId)) {
+                keys.add(key((String) row[0], (String) row[1]));
+                int routeId = this.permissionCatalogService.routeId((String) row[0], (String) row[1]);
+                if (routeId >= 0) {
+                    routes.set(routeId);
+                }
+            }
+        }
+        RoleTable loaded = new RoleTable(version.orElse(Long.MAX_VALUE), Set.copyOf(keys), routes);
+        if (this.roleGeneration.get() == generation) {
+            this.tablesByRole.asMap().merge(roleId, loaded,
+                    (current, next) -> next.version() >= current.version() ? next : current);
+            // invalidate chen vào giữa check và put => gỡ lại
+            if (this.roleGeneration.get() != generation) {
+                this.tablesByRole.asMap().remove(roleId, loaded);
+            }
+        }
+        return loaded;
+    }
+}
@@ -19,12 +19,15 @@ import vn.hoangtung.jobfind.repository.RoleRepository;
 public class RoleService {
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final RolePermissionCache rolePermissionCache;
 
     public RoleService(
             RoleRepository roleRepository,
-            PermissionRepository permissionRepository) {
+            PermissionRepository permissionRepository,
+            RolePermissionCache rolePermissionCache) {
         this.roleRepository = roleRepository;
         this.permissionRepository = permissionRepository;
+        this.rolePermissionCache = rolePermissionCache;
     }
 
     public boolean existByName(String name) {
@@ -68,12 +71,18 @@ public class RoleService {
         roleDB.setDescription(r.getDescription());
         roleDB.setActive(r.isActive());
         roleDB.setPermissions(r.getPermissions());
+        // token đang mang version cũ sẽ buộc bảng quyền load lại
+        roleDB.setPermissionVersion(roleDB.getPermissionVersion() + 1);
         roleDB = this.roleRepository.save(roleDB);
+        this.rolePermissionCache.invalidateRole(roleDB.getId());
         return roleDB;
     }
 
     public void delete(long id) {
         this.roleRepository.deleteById(id);
+        this.rolePermissionCache.invalidateRole(id);
+        // user đang trỏ tới role này
+        this.rolePermissionCache.invalidateAllUsers();
     }
 
     public ResultPaginationDTO getRoles(Specification<Role> spec, Pageable pageable) {
@@ -4,7 +4,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
 import java.util.Optional;
+import vn.hoangtung.jobfind.domain.Job;
 import vn.hoangtung.jobfind.domain.Skill;
 import vn.hoangtung.jobfind.domain.response.ResultPaginationDTO;
 import vn.hoangtung.jobfind.repository.SkillRepository;
@@ -12,9 +15,14 @@ import vn.hoangtung.jobfind.repository.SkillRepository;
 @Service
 public class SkillService {
     private final SkillRepository skillRepository;
+    private final JobSearchService jobSearchService;
+    private final JobDetailCacheService jobDetailCacheService;
 
-    public SkillService(SkillRepository skillRepository) {
+    public SkillService(SkillRepository skillRepository, JobSearchService jobSearchService,
+            JobDetailCacheService jobDetailCacheService) {
         this.skillRepository = skillRepository;
+        this.jobSearchService = jobSearchService;
+        this.jobDetailCacheService = jobDetailCacheService;
     }
 
     public boolean isNameExist(String name) {
@@ -34,13 +42,18 @@ public class SkillService {
     }
 
     public Skill updateSkill(Skill s) {
-        return this.skillRepository.save(s);
+        Skill skill = this.skillRepository.save(s);
+        // skill name nằm trong search index của các job đang dùng skill này
+        this.jobSearchService.reindexBySkill(skill.getId());
+        this.jobDetailCacheService.evictBySkill(skill.getId());
+        return skill;
     }
 
     public void deleteSkill(long id) {
         // delete job (inside job_skill table)
         Optional<Skill> skillOptional = this.skillRepository.findById(id);
         Skill currentSkill = skillOptional.get();
+        List<Long> jobIds = currentSkill.getJobs().stream().map(Job::getId).toList();
         currentSkill.getJobs().forEach(job -> job.getSkills().remove(currentSkill));
 
         // delete subscriber (inside subscriber_skill table)
@@ -48,8 +61,11 @@ public class SkillService {
         // subs.getSkills().remove(currentSkill));
 
         this.skillRepository.delete(currentSkill);
+        this.jobSearchService.reindex(jobIds);
+        this.jobDetailCacheService.evictAll(jobIds);
     }
 
+    @Transactional(readOnly = true)
     public ResultPaginationDTO fetchAll(Specification<Skill> spec, Pageable pageable) {
         Page<Skill> pageSkill = this.skillRepository.findAll(spec, pageable);
 
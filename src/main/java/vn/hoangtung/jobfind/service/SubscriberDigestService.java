@@ -0,0 +1,311 @@
+package vn.hoangtung.jobfind.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import vn.hoangtung.jobfind.domain.Job;
+import vn.hoangtung.jobfind.domain.response.email.ResEmailJob;
+import vn.hoangtung.jobfind.repository.JobRepository;
+import vn.hoangtung.jobfind.repository.SubscriberRepository;
+
+/**
+ * Gửi email job cho toàn bộ subscriber theo pipeline:
+ * đọc subscriber theo chunk (keyset) -> gom nhóm theo tập skill giống nhau ->
+ * load job cho các skill mới của chunk bằng 1 query -> render template 1 lần cho
+ * mỗi tập skill -> đẩy email đã render vào pool gửi mail có giới hạn hàng đợi.
+ */
+@Service
+public class SubscriberDigestService {
+
+    private static final String SUBJECT = "Cơ hội việc làm hot đang chờ đón bạn, khám phá ngay";
+    private static final String TEMPLATE = "job";
+    // th:text escape HTML nên placeholder chỉ dùng ký tự an toàn
+    private static final String NAME_PLACEHOLDER = "__SUBSCRIBER_NAME__";
+    private static final int RENDER_CACHE_SIZE = 1000;
+
+    private final SubscriberRepository subscriberRepository;
+    private final JobRepository jobRepository;
+    private final EmailService emailService;
+    private final SpringTemplateEngine templateEngine;
+
+    private final Counter subscribersCounter;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter renderCounter;
+    private final Timer chunkTimer;
+    private final Timer runTimer;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final ThreadPoolExecutor mailExecutor;
+
+    @Value("${hoangtung.digest.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${hoangtung.digest.max-jobs-per-email:20}")
+    private int maxJobsPerEmail;
+
+    private record SubscriberRow(long id, String email, String name) {
+    }
+
+    // trạng thái gửi của 1 lượt chạy: email chưa gửi xong + số gửi được / lỗi
+    private record MailRun(List<CompletableFuture<Void>> pending, AtomicLong sent, AtomicLong failed) {
+        MailRun() {
+            this(new ArrayList<>(), new AtomicLong(), new AtomicLong());
+        }
+    }
+
+    public SubscriberDigestService(
+            SubscriberRepository subscriberRepository,
+            JobRepository jobRepository,
+            EmailService emailService,
+            SpringTemplateEngine templateEngine,
+            MeterRegistry meterRegistry,
+            @Value("${hoangtung.digest.mail-threads:4}") int mailThreads) {
+        this.subscriberRepository = subscriberRepository;
+        this.jobRepository = jobRepository;
+        this.emailService = emailService;
+        this.templateEngine = templateEngine;
+
+        this.subscribersCounter = meterRegistry.counter("digest.subscribers.processed");
+        this.sentCounter = meterRegistry.counter("digest.emails", "result", "sent");
+        this.failedCounter = meterRegistry.counter("digest.emails", "result", "failed");
+        this.renderCounter = meterRegistry.counter("digest.templates.rendered");
+        this.chunkTimer = meterRegistry.timer("digest.chunk.duration");
+        this.runTimer = meterRegistry.timer("digest.run.duration");
+
+        // hàng đợi có giới hạn + CallerRuns => pipeline tự chậm lại khi SMTP không kịp
+        this.mailExecutor = new ThreadPoolExecutor(mailThreads, mailThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(mailThreads * 100), new ThreadPoolExecutor.CallerRunsPolicy());
+        meterRegistry.gauge("digest.mail.queue.size", this.mailExecutor, e -> e.getQueue().size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.mailExecutor.shutdown();
+    }
+
+    public void run() {
+        if (!this.running.compareAndSet(false, true)) {
+            System.out.println(">>> DIGEST: đang có 1 lượt gửi chạy, bỏ qua");
+            return;
+        }
+        try {
+            this.runTimer.record(this::runInternal);
+        } finally {
+            this.running.set(false);
+        }
+    }
+
+    private void runInternal() {
+        long start = System.currentTimeMillis();
+        long processed = 0;
+        long queued = 0;
+
+        // dữ liệu job dùng lại giữa các chunk trong cùng 1 lượt chạy
+        Map<Long, List<Long>> jobIdsBySkill = new HashMap<>();
+        Map<Long, ResEmailJob> jobsById = new HashMap<>();
+        Map<List<Long>, String> rendered = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Long>, String> eldest) {
+                return this.size() > RENDER_CACHE_SIZE;
+            }
+        };
+
+        MailRun mailRun = new MailRun();
+        long lastId = 0;
+        while (true) {
+            List<Object[]> page = this.subscriberRepository.findPageAfterId(lastId, PageRequest.of(0, this.chunkSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            List<SubscriberRow> chunk = page.stream()
+                    .map(row -> new SubscriberRow((Long) row[0], (String) row[1], (String) row[2]))
+                    .toList();
+            lastId = chunk.get(chunk.size() - 1).id();
+
+            Timer.Sample sample = Timer.start();
+            queued += this.processChunk(chunk, jobIdsBySkill, jobsById, rendered, mailRun);
+            sample.stop(this.chunkTimer);
+            // chỉ giữ future chưa xong: số lượng bị chặn bởi hàng đợi của mailExecutor
+            mailRun.pending().removeIf(CompletableFuture::isDone);
+
+            processed += chunk.size();
+            this.subscribersCounter.increment(chunk.size());
+            double seconds = Math.max(1, System.currentTimeMillis() - start) / 1000.0;
+            System.out.println(">>> DIGEST: " + processed + " subscribers, " + queued + " emails queued, "
+                    + String.format("%.1f", processed / seconds) + " subscribers/s");
+        }
+
+        // lượt chạy chỉ xong khi email cuối cùng đã gửi (runTimer cũng đo tới đây)
+        this.awaitSent(mailRun.pending());
+        System.out.println(">>> DIGEST DONE: " + processed + " subscribers, " + queued + " emails queued, "
+                + mailRun.sent().get() + " sent, " + mailRun.failed().get() + " failed in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private void awaitSent(List<CompletableFuture<Void>> pending) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]));
+        while (true) {
+            try {
+                all.get(1, TimeUnit.SECONDS);
+                return;
+            } catch (TimeoutException e) {
+                // app đang tắt: task bị CallerRunsPolicy bỏ đi sẽ không bao giờ xong
+                if (this.mailExecutor.isShutdown()) {
+                    System.out.println(">>> DIGEST: mail executor đã dừng, bỏ qua " + pending.stream()
+                            .filter(f -> !f.isDone()).count() + " email chưa gửi");
+                    return;
+                }
+            } catch (ExecutionException e) {
+                // lỗi gửi đã được đếm trong task, allOf chỉ báo lỗi khi mọi task đã xong
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private long processChunk(
+            List<SubscriberRow> chunk,
+            Map<Long, List<Long>> jobIdsBySkill,
+            Map<Long, ResEmailJob> jobsById,
+            Map<List<Long>, String> rendered,
+            MailRun mailRun) {
+
+        // gom subscriber theo tập skill (đã sort)
+        Map<Long, TreeSet<Long>> skillsBySubscriber = new HashMap<>();
+        List<Long> ids = chunk.stream().map(SubscriberRow::id).toList();
+        for (Object[] row : this.subscriberRepository.findSkillIdsBySubscriberIds(ids)) {
+            skillsBySubscriber.computeIfAbsent((Long) row[0], k -> new TreeSet<>()).add((Long) row[1]);
+        }
+        Map<List<Long>, List<SubscriberRow>> groups = new HashMap<>();
+        for (SubscriberRow sub : chunk) {
+            TreeSet<Long> skills = skillsBySubscriber.get(sub.id());
+            if (skills != null) {
+                groups.computeIfAbsent(List.copyOf(skills), k -> new ArrayList<>()).add(sub);
+            }
+        }
+
+        // chỉ query các skill chưa gặp ở chunk trước
+        Set<Long> newSkills = new HashSet<>();
+        groups.keySet().forEach(newSkills::addAll);
+        newSkills.removeAll(jobIdsBySkill.keySet());
+        if (!newSkills.isEmpty()) {
+            this.loadJobs(newSkills, jobIdsBySkill, jobsById);
+        }
+
+        long queued = 0;
+        for (Map.Entry<List<Long>, List<SubscriberRow>> group : groups.entrySet()) {
+            String html = rendered.get(group.getKey());
+            if (html == null) {
+                List<ResEmailJob> jobs = this.jobsForSkills(group.getKey(), jobIdsBySkill, jobsById);
+                if (jobs.isEmpty()) {
+                    continue;
+                }
+                html = this.render(jobs);
+                rendered.put(group.getKey(), html);
+            }
+            for (SubscriberRow sub : group.getValue()) {
+                String content = html.replace(NAME_PLACEHOLDER,
+                        sub.name() != null ? HtmlUtils.htmlEscape(sub.name()) : "");
+                mailRun.pending().add(CompletableFuture.runAsync(() -> {
+                    if (this.emailService.sendEmailSync(sub.email(), SUBJECT, content, false, true)) {
+                        mailRun.sent().incrementAndGet();
+                        this.sentCounter.increment();
+                    } else {
+                        mailRun.failed().incrementAndGet();
+                        this.failedCounter.increment();
+                    }
+                }, this.mailExecutor));
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    private void loadJobs(Collection<Long> skillIds, Map<Long, List<Long>> jobIdsBySkill,
+            Map<Long, ResEmailJob> jobsById) {
+        skillIds.forEach(skillId -> jobIdsBySkill.put(skillId, new ArrayList<>()));
+        Set<Long> newJobIds = new HashSet<>();
+        for (Object[] row : this.jobRepository.findActiveJobIdsBySkillIds(skillIds)) {
+            Long jobId = (Long) row[1];
+            jobIdsBySkill.get((Long) row[0]).add(jobId);
+            if (!jobsById.containsKey(jobId)) {
+                newJobIds.add(jobId);
+            }
+        }
+        if (newJobIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<ResEmailJob.SkillEmail>> skillsByJob = new HashMap<>();
+        for (Object[] row : this.jobRepository.findSkillsByJobIds(newJobIds)) {
+            skillsByJob.computeIfAbsent((Long) row[0], k -> new ArrayList<>())
+                    .add(new ResEmailJob.SkillEmail((String) row[2]));
+        }
+        for (Job job : this.jobRepository.findWithCompanyByIdIn(newJobIds)) {
+            ResEmailJob res = new ResEmailJob();
+            res.setName(job.getName());
+            res.setSalary(job.getSalary());
+            res.setCompany(new ResEmailJob.CompanyEmail(job.getCompany() != null ? job.getCompany().getName() : ""));
+            res.setSkills(skillsByJob.getOrDefault(job.getId(), List.of()));
+            jobsById.put(job.getId(), res);
+        }
+    }
+
+    // job mới nhất trước, tối đa maxJobsPerEmail job mỗi email
+    private List<ResEmailJob> jobsForSkills(List<Long> skillIds, Map<Long, List<Long>> jobIdsBySkill,
+            Map<Long, ResEmailJob> jobsById) {
+        TreeSet<Long> jobIds = new TreeSet<>(Comparator.reverseOrder());
+        for (Long skillId : skillIds) {
+            jobIds.addAll(jobIdsBySkill.getOrDefault(skillId, List.of()));
+        }
+        List<ResEmailJob> jobs = new ArrayList<>();
+        for (Long jobId : jobIds) {
+            ResEmailJob job = jobsById.get(jobId);
+            if (job != null) {
+                jobs.add(job);
+                if (jobs.size() >= this.maxJobsPerEmail) {
+                    break;
+                }
+            }
+        }
+        return jobs;
+    }
+
+    private String render(List<ResEmailJob> jobs) {
+        Context context = new Context();
+        context.setVariable("name", NAME_PLACEHOLDER);
+        context.setVariable("jobs", jobs);
+        this.renderCounter.increment();
+        return this.templateEngine.process(TEMPLATE, context);
+    }
+}
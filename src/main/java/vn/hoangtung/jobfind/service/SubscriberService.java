@@ -10,7 +10,6 @@ import vn.hoangtung.jobfind.domain.Job;
 import vn.hoangtung.jobfind.domain.Skill;
 import vn.hoangtung.jobfind.domain.Subscriber;
 import vn.hoangtung.jobfind.domain.response.email.ResEmailJob;
-import vn.hoangtung.jobfind.repository.JobRepository;
 import vn.hoangtung.jobfind.repository.SkillRepository;
 import vn.hoangtung.jobfind.repository.SubscriberRepository;
 
@@ -19,18 +18,15 @@ public class SubscriberService {
 
     private final SubscriberRepository subscriberRepository;
     private final SkillRepository skillRepository;
-    private final JobRepository jobRepository;
-    private final EmailService emailService;
+    private final SubscriberDigestService subscriberDigestService;
 
     public SubscriberService(
             vn.hoangtung.jobfind.repository.SubscriberRepository subscriberRepository,
             SkillRepository skillRepository,
-            EmailService emailService,
-            JobRepository jobRepository) {
+            SubscriberDigestService subscriberDigestService) {
         this.subscriberRepository = subscriberRepository;
         this.skillRepository = skillRepository;
-        this.emailService = emailService;
-        this.jobRepository = jobRepository;
+        this.subscriberDigestService = subscriberDigestService;
     }
 
     // @Scheduled(cron = "*/10 * * * * *")
@@ -88,28 +84,9 @@ public class SubscriberService {
         return res;
     }
 
+    // chia chunk + gom nhóm theo tập skill, xem SubscriberDigestService
     public void sendSubscribersEmailJobs() {
-        List<Subscriber> listSubs = this.subscriberRepository.findAll();
-        if (listSubs != null && listSubs.size() > 0) {
-            for (Subscriber sub : listSubs) {
-                List<Skill> listSkills = sub.getSkills();
-                if (listSkills != null && listSkills.size() > 0) {
-                    List<Job> listJobs = this.jobRepository.findBySkillsIn(listSkills);
-                    if (listJobs != null && listJobs.size() > 0) {
-
-                        List<ResEmailJob> arr = listJobs.stream().map(
-                                job -> this.convertJobToSendEmail(job)).collect(Collectors.toList());
-
-                        this.emailService.sendEmailFromTemplateSync(
-                                sub.getEmail(),
-                                "Cơ hội việc làm hot đang chờ đón bạn, khám phá ngay",
-                                "job",
-                                sub.getName(),
-                                arr);
-                    }
-                }
-            }
-        }
+        this.subscriberDigestService.run();
     }
 
     public Subscriber findByEmail(String email) {
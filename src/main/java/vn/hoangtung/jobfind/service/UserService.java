@@ -1,10 +1,9 @@
 package vn.hoangtung.jobfind.service;
 
-import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
@@ -17,6 +16,7 @@ import vn.hoangtung.jobfind.domain.response.ResUpdateUserDTO;
 import vn.hoangtung.jobfind.domain.response.ResUserDTO;
 import vn.hoangtung.jobfind.domain.response.ResultPaginationDTO;
 import vn.hoangtung.jobfind.repository.UserRepository;
+import vn.hoangtung.jobfind.util.error.IdInvalidException;
 
 @Service
 public class UserService {
@@ -27,11 +27,22 @@ public class UserService {
 
     private final RoleService roleService;
 
+    private final PaginationService paginationService;
+
+    private final RolePermissionCache rolePermissionCache;
+
+    private final RefreshTokenService refreshTokenService;
+
     // Constructor injection
-    public UserService(UserRepository userRepository, CompanyService companyService, RoleService roleService) {
+    public UserService(UserRepository userRepository, CompanyService companyService, RoleService roleService,
+            PaginationService paginationService, RolePermissionCache rolePermissionCache,
+            RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
         this.companyService = companyService;
         this.roleService = roleService;
+        this.paginationService = paginationService;
+        this.rolePermissionCache = rolePermissionCache;
+        this.refreshTokenService = refreshTokenService;
     }
 
     /**
@@ -49,7 +60,9 @@ public class UserService {
             Role r = this.roleService.fetchById(user.getRole().getId());
             user.setRole(r != null ? r : null);
         }
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        this.rolePermissionCache.invalidateUser(savedUser.getEmail());
+        return savedUser;
     }
 
     /**
@@ -63,26 +76,19 @@ public class UserService {
     /**
      * Lấy danh sách tất cả người dùng.
      */
-    public ResultPaginationDTO fetchAllUser(Specification<User> spec, Pageable pageable) {
-        Page<User> pageUser = this.userRepository.findAll(spec, pageable);
-        ResultPaginationDTO rs = new ResultPaginationDTO();
-        ResultPaginationDTO.Meta mt = new ResultPaginationDTO.Meta();
-
-        mt.setPage(pageable.getPageNumber() + 1);
-        mt.setPageSize(pageable.getPageSize());
-
-        mt.setPages(pageUser.getTotalPages());
-        mt.setTotal(pageUser.getTotalElements());
-
-        rs.setMeta(mt);
-        List<ResUserDTO> listUser = pageUser.getContent()
-                .stream().map(item -> this.convertToResUserDTO(
-                        item))
-                .collect(Collectors.toList());
-
-        rs.setResult(listUser);
+    public ResultPaginationDTO fetchAllUser(Specification<User> spec, Pageable pageable, String filter)
+            throws IdInvalidException {
+        return this.paginationService.fetchPage("users", User.class, spec, pageable, filter,
+                users -> users.stream().map(item -> this.convertToResUserDTO(item)).collect(Collectors.toList()));
+    }
 
-        return rs;
+    /**
+     * Lấy danh sách người dùng theo cursor (keyset), không cần COUNT.
+     */
+    public ResultPaginationDTO fetchAllUserByCursor(Specification<User> spec, Pageable pageable, String cursor)
+            throws IdInvalidException {
+        return this.paginationService.fetchByCursor(User.class, spec, pageable, cursor,
+                users -> users.stream().map(item -> this.convertToResUserDTO(item)).collect(Collectors.toList()));
     }
 
     /**
@@ -104,12 +110,20 @@ public class UserService {
             }
 
             // check role
+            Long oldRoleId = currentUser.getRole() != null ? currentUser.getRole().getId() : null;
             if (reqUser.getRole() != null) {
                 Role r = this.roleService.fetchById(reqUser.getRole().getId());
                 currentUser.setRole(r != null ? r : null);
             }
+            Long newRoleId = currentUser.getRole() != null ? currentUser.getRole().getId() : null;
+            if (!Objects.equals(oldRoleId, newRoleId)) {
+                // claim role trong access token cũ không còn đúng (lưu trong DB: mọi node, cả sau restart)
+                currentUser.setAuthEpoch(currentUser.getAuthEpoch() + 1);
+            }
 
             currentUser = this.userRepository.save(currentUser);
+            // role có thể đã đổi
+            this.rolePermissionCache.invalidateUser(currentUser.getEmail());
         }
         return currentUser;
     }
@@ -118,7 +132,15 @@ public class UserService {
      * Xóa một người dùng theo ID.
      */
     public void handleDeleteUser(Long id) {
+        Optional<User> user = userRepository.findById(id);
+        // tăng epoch trước: nếu xóa thất bại (vd. còn resume tham chiếu) token cũ vẫn mất hiệu lực;
+        // xóa thành công thì email không còn user => interceptor từ chối
+        userRepository.incrementAuthEpoch(id);
         userRepository.deleteById(id);
+        user.ifPresent(u -> {
+            this.rolePermissionCache.invalidateUser(u.getEmail());
+            this.refreshTokenService.revokeAll(u.getEmail());
+        });
     }
 
     public User handleGetUserByUsername(String username) {
@@ -199,15 +221,4 @@ public class UserService {
         return res;
     }
 
-    public User getUserByRefreshTokenAndEmail(String token, String email) {
-        return this.userRepository.findByRefreshTokenAndEmail(token, email);
-    }
-
-    public void updateUserToken(String token, String email) {
-        User currentUser = this.handleGetUserByUsername(email);
-        if (currentUser != null) {
-            currentUser.setRefreshToken(token);
-            this.userRepository.save(currentUser);
-        }
-    }
 }
@@ -0,0 +1,38 @@
+package vn.hoangtung.jobfind.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import vn.hoangtung.jobfind.util.error.IdInvalidException;
+
+/**
+ * Cursor "mờ" (opaque) cho keyset pagination: mã hóa bộ (sort property, chiều
+ * sort, sort value, id) của phần tử cuối cùng trong trang trước.
+ */
+public record KeysetCursor(String property, boolean descending, String value, long id) {
+
+    private static final String NULL_VALUE = "~";
+    private static final String VALUE_PREFIX = "=";
+    private static final String ASC = "asc";
+    private static final String DESC = "desc";
+
+    public String encode() {
+        String raw = this.property + "|" + (this.descending ? DESC : ASC) + "|" + this.id + "|"
+                + (this.value == null ? NULL_VALUE : VALUE_PREFIX + this.value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) throws IdInvalidException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || parts[0].isEmpty() || !(parts[1].equals(ASC) || parts[1].equals(DESC))) {
+                throw new IdInvalidException("Cursor không hợp lệ");
+            }
+            String value = parts[3].equals(NULL_VALUE) ? null : parts[3].substring(VALUE_PREFIX.length());
+            return new KeysetCursor(parts[0], parts[1].equals(DESC), value, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            throw new IdInvalidException("Cursor không hợp lệ");
+        }
+    }
+}
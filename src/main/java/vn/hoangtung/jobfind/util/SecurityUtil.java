@@ -2,14 +2,14 @@ package vn.hoangtung.jobfind.util;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -22,6 +22,8 @@ import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import com.nimbusds.jose.util.Base64;
 
@@ -43,6 +45,14 @@ public class SecurityUtil {
     // Dùng chung cho cả tạo (Encoder) và giải mã (Decoder)
     public static final MacAlgorithm JWT_ALGORITHM = MacAlgorithm.HS512;
 
+    public static final String ROLE_ID_CLAIM = "role_id";
+    public static final String ROLE_VERSION_CLAIM = "role_version";
+    public static final String AUTH_EPOCH_CLAIM = "auth_epoch";
+    public static final long NO_ROLE = -1;
+    public static final String SESSION_ID_CLAIM = "sid";
+
+    private static final String CURRENT_USER_ATTRIBUTE = SecurityUtil.class.getName() + ".CURRENT_USER";
+
     // Tiêm các giá trị cấu hình từ file application.properties
     @Value("${hoangtung.jwt.base64-secret}")
     private String jwtKey; // Khóa bí mật
@@ -71,13 +81,11 @@ public class SecurityUtil {
         // Tính thời điểm hết hạn của Access Token
         Instant validity = now.plus(this.accessTokenExpiration, ChronoUnit.SECONDS);
 
-        // Lấy danh sách quyền (permission) của user
-        // LƯU Ý QUAN TRỌNG: Ở ĐÂY BẠN ĐANG HARDCODE (GÁN CỨNG) QUYỀN!
-        // Trong thực tế, bạn PHẢI lấy danh sách quyền này từ `UserService`
-        // dựa trên `email` hoặc `dto` của người dùng.
-        List<String> listAuthority = new ArrayList<String>();
-        listAuthority.add("ROLE_USER_CREATE");
-        listAuthority.add("ROLE_USER_UPDATE");
+        // Chỉ nhúng role id + version của bảng quyền, không nhúng cả danh sách permission:
+        // PermissionInterceptor tra bảng quyền đã cache theo role, token vẫn nhỏ.
+        ResLoginDTO.RoleLogin role = dto.getUser().getRole();
+        long roleId = role != null ? role.getId() : NO_ROLE;
+        long roleVersion = role != null ? role.getVersion() : 0;
 
         // Bắt đầu xây dựng các "claims" (thông tin chứa trong) của JWT
         // @formatter:off
@@ -86,7 +94,9 @@ public class SecurityUtil {
                 .expiresAt(validity) // exp: Thời điểm hết hạn
                 .subject(email) // sub: Chủ thể của token (thường là username/email)
                 .claim("user", userToken) // claim tùy chỉnh: nhúng đối tượng thông tin user
-                .claim("permission", listAuthority) // claim tùy chỉnh: nhúng danh sách quyền
+                .claim(ROLE_ID_CLAIM, roleId) // claim tùy chỉnh: role của user (-1 = không có role)
+                .claim(ROLE_VERSION_CLAIM, roleVersion) // claim tùy chỉnh: version bảng quyền của role
+                .claim(AUTH_EPOCH_CLAIM, dto.getUser().getAuthEpoch()) // claim tùy chỉnh: users.auth_epoch lúc phát hành
                 .build();
         // @formatter:on
 
@@ -100,11 +110,12 @@ public class SecurityUtil {
     /**
      * Tạo ra Refresh Token (token làm mới).
      *
-     * @param email Email của người dùng.
-     * @param dto   Đối tượng chứa thông tin user.
+     * @param email     Email của người dùng.
+     * @param dto       Đối tượng chứa thông tin user.
+     * @param sessionId Id phiên đăng nhập (giữ nguyên qua các lần xoay vòng token).
      * @return Chuỗi Refresh Token đã được ký.
      */
-    public String createRefreshToken(String email, ResLoginDTO dto) {
+    public String createRefreshToken(String email, ResLoginDTO dto, String sessionId) {
         Instant now = Instant.now();
         // Tính thời điểm hết hạn của Refresh Token (dài hơn Access Token)
         Instant validity = now.plus(this.refreshTokenExpiration, ChronoUnit.SECONDS);
@@ -121,6 +132,8 @@ public class SecurityUtil {
                 .expiresAt(validity)
                 .subject(email)
                 .claim("user", userToken)
+                .claim(SESSION_ID_CLAIM, sessionId)
+                .id(UUID.randomUUID().toString()) // jti: mỗi refresh token là duy nhất (hash làm khóa trong DB)
                 // QUAN TRỌNG: Refresh Token KHÔNG cần và KHÔNG NÊN chứa quyền (permission)
                 // vì nó chỉ có một mục đích duy nhất là "lấy Access Token mới".
                 .build();
@@ -176,13 +189,29 @@ public class SecurityUtil {
      *         rỗng.
      */
     public static Optional<String> getCurrentUserLogin() {
+        // Trong 1 HTTP request, kết quả được giữ ở request attribute: các callback
+        // @PrePersist/@PreUpdate của entity gọi hàm này nhiều lần
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            Object cached = requestAttributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (cached instanceof String email) {
+                return Optional.of(email);
+            }
+        }
+
         // SecurityContextHolder là nơi Spring Security lưu trữ thông tin của user đã
         // được xác thực
         SecurityContext securityContext = SecurityContextHolder.getContext();
         // Lấy đối tượng Authentication (chứa thông tin user và quyền)
         Authentication authentication = securityContext.getAuthentication();
         // Gọi hàm extractPrincipal để lấy tên user (email)
-        return Optional.ofNullable(extractPrincipal(authentication));
+        String email = extractPrincipal(authentication);
+        // chỉ cache khi đã xác thực thật (request /login set authentication giữa chừng)
+        if (email != null && requestAttributes != null
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            requestAttributes.setAttribute(CURRENT_USER_ATTRIBUTE, email, RequestAttributes.SCOPE_REQUEST);
+        }
+        return Optional.ofNullable(email);
     }
 
     /**
@@ -0,0 +1,5 @@
+package vn.hoangtung.jobfind.util.constant;
+
+public enum CountStrategyEnum {
+    EXACT, CACHED, ESTIMATED
+}
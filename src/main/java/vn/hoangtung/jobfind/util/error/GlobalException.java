@@ -43,6 +43,17 @@ public class GlobalException {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(res);
     }
 
+    @ExceptionHandler(value = {
+            TooManyRequestsException.class,
+    })
+    public ResponseEntity<RestResponse<Object>> handleTooManyRequestsException(Exception ex) {
+        RestResponse<Object> res = new RestResponse<Object>();
+        res.setStatusCode(HttpStatus.TOO_MANY_REQUESTS.value());
+        res.setMessage(ex.getMessage());
+        res.setError("Too Many Requests");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(res);
+    }
+
     @ExceptionHandler(value = {
             NoResourceFoundException.class,
     })
@@ -0,0 +1,8 @@
+package vn.hoangtung.jobfind.util.error;
+
+// unchecked: còn được ném từ bên trong PasswordEncoder / AuthenticationManager
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
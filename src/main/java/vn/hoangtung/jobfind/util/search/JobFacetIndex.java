@@ -0,0 +1,146 @@
+package vn.hoangtung.jobfind.util.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Facet index trong bộ nhớ cho toàn bộ job (cùng tập với listing /jobs).
+ * Mỗi giá trị facet (level, location, skill, company) giữ một BitSet(jobId), nên
+ * đếm facet cho một tập kết quả chỉ là AND + cardinality, không cần GROUP BY.
+ */
+public class JobFacetIndex {
+
+    public enum Facet {
+        LEVEL, LOCATION, SKILL, COMPANY
+    }
+
+    // value: khóa để filter (enum name, location, id); label: text hiển thị
+    public record FacetValue(String value, String label, int count) {
+    }
+
+    private final EnumMap<Facet, Map<String, BitSet>> postings = new EnumMap<>(Facet.class);
+    private final EnumMap<Facet, Map<String, String>> labels = new EnumMap<>(Facet.class);
+    private final Map<Integer, EnumMap<Facet, String[]>> docValues = new HashMap<>();
+    private final BitSet docs = new BitSet();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public JobFacetIndex() {
+        for (Facet facet : Facet.values()) {
+            this.postings.put(facet, new HashMap<>());
+            this.labels.put(facet, new HashMap<>());
+        }
+    }
+
+    /**
+     * Ghi đè các giá trị facet của một job. values: facet -> (value -> label).
+     */
+    public void put(int docId, Map<Facet, Map<String, String>> values) {
+        this.lock.writeLock().lock();
+        try {
+            this.removeInternal(docId);
+            EnumMap<Facet, String[]> stored = new EnumMap<>(Facet.class);
+            for (Map.Entry<Facet, Map<String, String>> entry : values.entrySet()) {
+                Map<String, BitSet> facetPostings = this.postings.get(entry.getKey());
+                Map<String, String> facetLabels = this.labels.get(entry.getKey());
+                for (Map.Entry<String, String> value : entry.getValue().entrySet()) {
+                    facetPostings.computeIfAbsent(value.getKey(), v -> new BitSet()).set(docId);
+                    facetLabels.put(value.getKey(), value.getValue());
+                }
+                stored.put(entry.getKey(), entry.getValue().keySet().toArray(new String[0]));
+            }
+            this.docValues.put(docId, stored);
+            this.docs.set(docId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int docId) {
+        this.lock.writeLock().lock();
+        try {
+            this.removeInternal(docId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        this.lock.writeLock().lock();
+        try {
+            this.postings.values().forEach(Map::clear);
+            this.labels.values().forEach(Map::clear);
+            this.docValues.clear();
+            this.docs.clear();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Đếm số job theo từng giá trị facet trong tập match (null = tất cả job).
+     * Mỗi facet trả về tối đa limit giá trị, sắp theo count giảm dần.
+     */
+    public Map<Facet, List<FacetValue>> count(BitSet match, int limit) {
+        EnumMap<Facet, List<FacetValue>> result = new EnumMap<>(Facet.class);
+        this.lock.readLock().lock();
+        try {
+            BitSet scope = null;
+            if (match != null) {
+                scope = (BitSet) match.clone();
+                scope.and(this.docs);
+            }
+            BitSet scratch = new BitSet();
+            for (Facet facet : Facet.values()) {
+                Map<String, String> facetLabels = this.labels.get(facet);
+                List<FacetValue> values = new ArrayList<>();
+                for (Map.Entry<String, BitSet> entry : this.postings.get(facet).entrySet()) {
+                    int count;
+                    if (scope == null) {
+                        count = entry.getValue().cardinality();
+                    } else {
+                        scratch.clear();
+                        scratch.or(entry.getValue());
+                        scratch.and(scope);
+                        count = scratch.cardinality();
+                    }
+                    if (count > 0) {
+                        values.add(new FacetValue(entry.getKey(), facetLabels.get(entry.getKey()), count));
+                    }
+                }
+                values.sort((a, b) -> a.count() != b.count()
+                        ? Integer.compare(b.count(), a.count())
+                        : a.label().compareTo(b.label()));
+                result.put(facet, values.size() > limit ? new ArrayList<>(values.subList(0, limit)) : values);
+            }
+            return result;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(int docId) {
+        EnumMap<Facet, String[]> values = this.docValues.remove(docId);
+        this.docs.clear(docId);
+        if (values == null) {
+            return;
+        }
+        for (Map.Entry<Facet, String[]> entry : values.entrySet()) {
+            Map<String, BitSet> facetPostings = this.postings.get(entry.getKey());
+            for (String value : entry.getValue()) {
+                BitSet docsOfValue = facetPostings.get(value);
+                if (docsOfValue != null) {
+                    docsOfValue.clear(docId);
+                    if (docsOfValue.isEmpty()) {
+                        facetPostings.remove(value);
+                        this.labels.get(entry.getKey()).remove(value);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package vn.hoangtung.jobfind.util.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index trong bộ nhớ cho tìm kiếm job.
+ * Mỗi field giữ một map term -> BitSet(jobId), nên bước match chỉ là phép AND/OR
+ * trên bitset, không cần chạm vào MySQL.
+ */
+public class JobSearchIndex {
+
+    public enum Field {
+        NAME(3), SKILL(2), LOCATION(2), DESCRIPTION(1);
+
+        private final int weight;
+
+        Field(int weight) {
+            this.weight = weight;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+    }
+
+    public record SearchResult(long total, List<Long> ids) {
+    }
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern HTML_TAGS = Pattern.compile("<[^>]*>");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}+#]+");
+
+    private final EnumMap<Field, Map<String, BitSet>> postings = new EnumMap<>(Field.class);
+    private final Map<Integer, EnumMap<Field, String[]>> docTerms = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public JobSearchIndex() {
+        for (Field field : Field.values()) {
+            this.postings.put(field, new HashMap<>());
+        }
+    }
+
+    /**
+     * Tách text thành các term: bỏ dấu tiếng Việt, bỏ thẻ HTML, chuyển về chữ
+     * thường. Giữ lại '+' và '#' để "c++", "c#" vẫn tìm được.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String normalized = HTML_TAGS.matcher(text).replaceAll(" ");
+        normalized = Normalizer.normalize(normalized, Normalizer.Form.NFD);
+        normalized = DIACRITICS.matcher(normalized).replaceAll("");
+        normalized = normalized.replace('đ', 'd').replace('Đ', 'D').toLowerCase(Locale.ROOT);
+
+        List<String> terms = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    public void put(int docId, Map<Field, ? extends Collection<String>> fields) {
+        EnumMap<Field, String[]> terms = new EnumMap<>(Field.class);
+        for (Map.Entry<Field, ? extends Collection<String>> entry : fields.entrySet()) {
+            Set<String> distinct = new LinkedHashSet<>();
+            for (String text : entry.getValue()) {
+                distinct.addAll(tokenize(text));
+            }
+            terms.put(entry.getKey(), distinct.toArray(new String[0]));
+        }
+
+        this.lock.writeLock().lock();
+        try {
+            this.removeInternal(docId);
+            for (Map.Entry<Field, String[]> entry : terms.entrySet()) {
+                Map<String, BitSet> fieldPostings = this.postings.get(entry.getKey());
+                for (String term : entry.getValue()) {
+                    fieldPostings.computeIfAbsent(term, t -> new BitSet()).set(docId);
+                }
+            }
+            this.docTerms.put(docId, terms);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int docId) {
+        this.lock.writeLock().lock();
+        try {
+            this.removeInternal(docId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        this.lock.writeLock().lock();
+        try {
+            this.postings.values().forEach(Map::clear);
+            this.docTerms.clear();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.docTerms.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Trả về tập job khớp TẤT CẢ các term của query (mỗi term có thể khớp ở bất kỳ
+     * field nào). Kết quả là bản copy, caller có thể tự do sửa.
+     */
+    public BitSet match(String query) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        this.lock.readLock().lock();
+        try {
+            return this.matchInternal(terms);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Match + xếp hạng, chỉ giữ lại top (offset + limit) bằng min-heap nên không
+     * phải sort toàn bộ tập kết quả. Heap không bao giờ lớn hơn số job khớp.
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || limit <= 0 || offset < 0) {
+            return new SearchResult(0, Collections.emptyList());
+        }
+
+        this.lock.readLock().lock();
+        try {
+            BitSet matches = this.matchInternal(terms);
+            long total = matches.cardinality();
+            if (offset >= total) {
+                return new SearchResult(total, Collections.emptyList());
+            }
+            // long: offset + limit có thể vượt Integer.MAX_VALUE
+            int keep = (int) Math.min((long) offset + limit, total);
+
+            // heap[0] = score, heap[1] = docId; phần tử "nhỏ nhất" nằm ở đỉnh.
+            // capacity mặc định, heap tự lớn dần tới tối đa keep + 1 phần tử
+            PriorityQueue<int[]> heap = new PriorityQueue<>(
+                    (a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+            for (int docId = matches.nextSetBit(0); docId >= 0; docId = matches.nextSetBit(docId + 1)) {
+                heap.offer(new int[] { this.score(docId, terms), docId });
+                if (heap.size() > keep) {
+                    heap.poll();
+                }
+            }
+
+            List<int[]> ranked = new ArrayList<>(heap);
+            ranked.sort((a, b) -> a[0] != b[0] ? Integer.compare(b[0], a[0]) : Integer.compare(b[1], a[1]));
+
+            List<Long> ids = new ArrayList<>();
+            for (int i = offset; i < ranked.size(); i++) {
+                ids.add((long) ranked.get(i)[1]);
+            }
+            return new SearchResult(total, ids);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private BitSet matchInternal(List<String> terms) {
+        if (terms.isEmpty()) {
+            return new BitSet();
+        }
+        BitSet result = null;
+        for (String term : terms) {
+            BitSet termDocs = new BitSet();
+            for (Map<String, BitSet> fieldPostings : this.postings.values()) {
+                BitSet docsOfField = fieldPostings.get(term);
+                if (docsOfField != null) {
+                    termDocs.or(docsOfField);
+                }
+            }
+            if (result == null) {
+                result = termDocs;
+            } else {
+                result.and(termDocs);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private int score(int docId, List<String> terms) {
+        int score = 0;
+        for (String term : terms) {
+            for (Map.Entry<Field, Map<String, BitSet>> entry : this.postings.entrySet()) {
+                BitSet docsOfField = entry.getValue().get(term);
+                if (docsOfField != null && docsOfField.get(docId)) {
+                    score += entry.getKey().getWeight();
+                }
+            }
+        }
+        return score;
+    }
+
+    private void removeInternal(int docId) {
+        EnumMap<Field, String[]> terms = this.docTerms.remove(docId);
+        if (terms == null) {
+            return;
+        }
+        for (Map.Entry<Field, String[]> entry : terms.entrySet()) {
+            Map<String, BitSet> fieldPostings = this.postings.get(entry.getKey());
+            for (String term : entry.getValue()) {
+                BitSet docsOfTerm = fieldPostings.get(term);
+                if (docsOfTerm != null) {
+                    docsOfTerm.clear(docId);
+                    if (docsOfTerm.isEmpty()) {
+                        fieldPostings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+}
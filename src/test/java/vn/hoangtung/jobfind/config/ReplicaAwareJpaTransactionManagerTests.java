@@ -0,0 +1,115 @@
+package vn.hoangtung.jobfind.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import vn.hoangtung.jobfind.domain.Company;
+
+/**
+ * Transaction readOnly (đi replica) không được đưa entity vào second-level
+ * cache: nếu replica trễ, bản cũ sẽ bị findById trên primary đọc lại tới hết TTL.
+ */
+@DataJpaTest
+@Import(ReplicaAwareJpaTransactionManagerTests.TransactionManagerConfig.class)
+// mỗi test tự mở transaction qua TransactionTemplate
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaAwareJpaTransactionManagerTests {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long companyId;
+
+    @BeforeEach
+    void setUp() {
+        this.companyId = this.inTransaction(false, () -> {
+            Company company = new Company();
+            company.setName("Company A");
+            this.entityManager.persist(company);
+            return company.getId();
+        });
+        this.entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void usesReplicaAwareTransactionManager() {
+        assertThat(this.transactionManager).isInstanceOf(ReplicaAwareJpaTransactionManager.class);
+    }
+
+    @Test
+    void readOnlyTransactionDoesNotPopulateSecondLevelCache() {
+        Company company = this.inTransaction(true, () -> this.entityManager.find(Company.class, this.companyId));
+
+        assertThat(company).isNotNull();
+        assertThat(this.entityManagerFactory.getCache().contains(Company.class, this.companyId)).isFalse();
+    }
+
+    @Test
+    void readOnlyQueryDoesNotPopulateSecondLevelCache() {
+        this.inTransaction(true, () -> this.entityManager
+                .createQuery("select c from Company c", Company.class).getResultList());
+
+        assertThat(this.entityManagerFactory.getCache().contains(Company.class, this.companyId)).isFalse();
+    }
+
+    @Test
+    void readWriteTransactionStillPopulatesSecondLevelCache() {
+        // readOnly trước đó không được để lại CacheMode.GET
+        this.inTransaction(true, () -> this.entityManager.find(Company.class, this.companyId));
+        this.inTransaction(false, () -> this.entityManager.find(Company.class, this.companyId));
+
+        assertThat(this.entityManagerFactory.getCache().contains(Company.class, this.companyId)).isTrue();
+    }
+
+    @Test
+    void readOnlyTransactionStillReadsFromSecondLevelCache() {
+        this.inTransaction(false, () -> this.entityManager.find(Company.class, this.companyId));
+
+        // đổi thẳng bằng JDBC (native query của Hibernate sẽ evict cả L2): readOnly vẫn
+        // thấy bản trong L2, tức là vẫn đọc được cache, chỉ không ghi vào
+        this.jdbcTemplate.update("update companies set name = 'Changed' where id = ?", this.companyId);
+        String name = this.inTransaction(true,
+                () -> this.entityManager.find(Company.class, this.companyId).getName());
+
+        assertThat(name).isEqualTo("Company A");
+    }
+
+    private <T> T inTransaction(boolean readOnly, Supplier<T> action) {
+        TransactionTemplate template = new TransactionTemplate(this.transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> action.get());
+    }
+
+    @TestConfiguration
+    static class TransactionManagerConfig {
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new ReplicaAwareJpaTransactionManager(entityManagerFactory);
+        }
+    }
+}
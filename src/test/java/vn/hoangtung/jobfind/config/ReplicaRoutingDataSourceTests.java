@@ -0,0 +1,136 @@
+package vn.hoangtung.jobfind.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 2 database H2 nhúng thay cho primary / replica: mỗi DB có bảng marker chứa tên
+ * của chính nó, nên câu select cho biết transaction đã được route tới đâu.
+ */
+class ReplicaRoutingDataSourceTests {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    // độ trễ "đọc" được từ replica (H2 không có SHOW REPLICA STATUS)
+    private final AtomicLong lag = new AtomicLong();
+    private ReplicaLagMonitor monitor;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        this.primary = database("primary");
+        this.replica = database("replica");
+        this.monitor = new ReplicaLagMonitor(this.replica, 5, new SimpleMeterRegistry()) {
+            @Override
+            protected long readLagSeconds() {
+                return lag.get();
+            }
+        };
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(this.monitor);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.PRIMARY, this.primary,
+                ReplicaRoutingDataSource.REPLICA, this.replica));
+        routing.setDefaultTargetDataSource(this.primary);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.primary.shutdown();
+        this.replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplica() {
+        assertThat(this.currentDatabase(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransactionUsesPrimary() {
+        assertThat(this.currentDatabase(false)).isEqualTo("primary");
+    }
+
+    @Test
+    void writeGoesToPrimary() {
+        new TransactionTemplate(this.transactionManager).executeWithoutResult(
+                status -> this.jdbcTemplate.update("insert into marker (name) values ('written')"));
+
+        assertThat(new JdbcTemplate(this.primary).queryForObject(
+                "select count(*) from marker where name = 'written'", Integer.class)).isEqualTo(1);
+        assertThat(new JdbcTemplate(this.replica).queryForObject(
+                "select count(*) from marker where name = 'written'", Integer.class)).isZero();
+    }
+
+    @Test
+    void laggingReplicaSendsReadsToPrimary() {
+        this.lag.set(6);
+        this.monitor.check();
+
+        assertThat(this.monitor.isReplicaUsable()).isFalse();
+        assertThat(this.currentDatabase(true)).isEqualTo("primary");
+
+        // bắt kịp => đọc lại từ replica
+        this.lag.set(5);
+        this.monitor.check();
+        assertThat(this.currentDatabase(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void stoppedReplicationSendsReadsToPrimary() {
+        this.lag.set(-1);
+        this.monitor.check();
+
+        assertThat(this.monitor.isReplicaUsable()).isFalse();
+        assertThat(this.currentDatabase(true)).isEqualTo("primary");
+    }
+
+    @Test
+    void unreachableReplicaSendsReadsToPrimary() {
+        // không override readLagSeconds: SHOW REPLICA STATUS lỗi trên H2 => coi như -1
+        ReplicaLagMonitor real = new ReplicaLagMonitor(this.replica, 5, new SimpleMeterRegistry());
+        real.check();
+
+        assertThat(real.isReplicaUsable()).isFalse();
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(this.transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> this.jdbcTemplate.queryForObject(
+                "select name from marker where name in ('primary', 'replica')", String.class));
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        jdbc.execute("create table marker (name varchar(32))");
+        jdbc.update("insert into marker (name) values (?)", name);
+        return database;
+    }
+}
@@ -0,0 +1,171 @@
+package vn.hoangtung.jobfind.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import vn.hoangtung.jobfind.service.FileService;
+
+/**
+ * /storage/**: Cache-Control public (logo công ty) / private (còn lại), chọn bản
+ * .gz theo Accept-Encoding, 304 theo If-None-Match, và cache resolver được xóa
+ * sau khi migrate file kiểu cũ.
+ */
+@SpringJUnitWebConfig(StaticResourcesWebConfigurationTests.WebConfig.class)
+class StaticResourcesWebConfigurationTests {
+
+    private static final String CONTENT = "<svg xmlns=\"http://www.w3.org/2000/svg\"></svg>";
+    private static final long CREATED_AT = 1_700_000_000_000L;
+
+    private static Path root;
+
+    @DynamicPropertySource
+    static void storageRoot(DynamicPropertyRegistry registry) throws Exception {
+        root = Files.createTempDirectory("storage");
+        registry.add("hoangtung.upload-file.base-uri", () -> root.toUri().toString());
+    }
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private StaticResourcesWebConfiguration staticResourcesWebConfiguration;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+        this.staticResourcesWebConfiguration.clearResourceCaches();
+    }
+
+    @Test
+    void companyLogoIsCachedPublicly() throws Exception {
+        String sha = this.storedFile("company/logo.svg", false);
+
+        MockHttpServletResponse response = this.fetch("/storage/company/logo.svg");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL))
+                .contains("public", "max-age=31536000", "immutable")
+                .doesNotContain("private");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + sha + "\"");
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void otherFoldersAreCachedPrivately() throws Exception {
+        this.storedFile("resume/cv.svg", false);
+
+        MockHttpServletResponse response = this.fetch("/storage/resume/cv.svg");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL))
+                .contains("private", "max-age=31536000", "immutable")
+                .doesNotContain("public");
+    }
+
+    @Test
+    void gzipVariantIsServedWhenAccepted() throws Exception {
+        String sha = this.storedFile("company/banner.svg", true);
+
+        MockHttpServletResponse response = this.mockMvc.perform(get("/storage/company/banner.svg")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")).andReturn().getResponse();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + sha + "-gz\"");
+        assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    void identityVariantIsServedWithoutAcceptEncoding() throws Exception {
+        String sha = this.storedFile("company/icon.svg", true);
+
+        MockHttpServletResponse response = this.fetch("/storage/company/icon.svg");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + sha + "\"");
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void ifNoneMatchReturns304() throws Exception {
+        String sha = this.storedFile("resume/letter.svg", false);
+
+        MockHttpServletResponse response = this.mockMvc.perform(get("/storage/resume/letter.svg")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + sha + "\"")).andReturn().getResponse();
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void migratedLegacyFileIsServedAfterCachesAreCleared() throws Exception {
+        Path legacy = Files.createDirectories(root.resolve("resume")).resolve("old.svg");
+        Files.writeString(legacy, CONTENT);
+        assertThat(this.fetch("/storage/resume/old.svg").getStatus()).isEqualTo(200);
+
+        // UploadStoreMigrator: file cũ chuyển vào blob store rồi xóa cache resolver
+        Files.delete(legacy);
+        String sha = this.storedFile("resume/old.svg", false);
+        this.staticResourcesWebConfiguration.clearResourceCaches();
+
+        MockHttpServletResponse response = this.fetch("/storage/resume/old.svg");
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + sha + "\"");
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    private MockHttpServletResponse fetch(String path) throws Exception {
+        return this.mockMvc.perform(get(path)).andReturn().getResponse();
+    }
+
+    // blob giả trong blobs/, FileService (mock) trả metadata như khi tra bảng stored_files
+    private String storedFile(String resourcePath, boolean withGzip) throws Exception {
+        String sha = String.format("%064x", resourcePath.hashCode() & 0xffffffffL);
+        Path blob = Files.createDirectories(root.resolve("blobs").resolve(sha.substring(0, 2))
+                .resolve(sha.substring(2, 4))).resolve(sha);
+        Files.writeString(blob, CONTENT);
+        if (withGzip) {
+            Files.writeString(blob.resolveSibling(sha + FileService.GZIP_SUFFIX), "gz");
+        }
+        when(this.fileService.findStoredFile(resourcePath)).thenReturn(new FileService.FileInfo(
+                blob, CONTENT.length(), "image/svg+xml", "\"" + sha + "\"", CREATED_AT));
+        return sha;
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @Import(StaticResourcesWebConfiguration.class)
+    static class WebConfig {
+        @Bean
+        FileService fileService() {
+            return mock(FileService.class);
+        }
+    }
+}
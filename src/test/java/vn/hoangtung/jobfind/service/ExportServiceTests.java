@@ -0,0 +1,101 @@
+package vn.hoangtung.jobfind.service;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.io.OutputStream;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import vn.hoangtung.jobfind.util.constant.ExportFormatEnum;
+import vn.hoangtung.jobfind.util.error.TooManyRequestsException;
+
+/**
+ * Permit của export (max-concurrent = 1) phải được trả cả khi body không bao giờ
+ * chạy (executor từ chối, timeout, lỗi trước khi dispatch), không chỉ khi body
+ * chạy xong.
+ */
+class ExportServiceTests {
+
+    private EntityManager entityManager;
+    private ExportService exportService;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        this.entityManager = mock(EntityManager.class);
+        this.exportService = new ExportService(this.entityManager, mock(PlatformTransactionManager.class),
+                new ObjectMapper(), 1);
+        this.request = new MockHttpServletRequest("GET", "/api/v1/jobs/export");
+        this.request.setAsyncSupported(true);
+        this.response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(this.request, this.response));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void secondConcurrentExportIsRejected() {
+        this.exportService.exportJobs(null, ExportFormatEnum.NDJSON);
+
+        assertThatThrownBy(() -> this.exportService.exportJobs(null, ExportFormatEnum.NDJSON))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void permitIsReleasedWhenBodyFails() {
+        StreamingResponseBody body = this.exportService.exportJobs(null, ExportFormatEnum.NDJSON);
+
+        // EntityManager mock không có CriteriaBuilder => export lỗi giữa chừng
+        assertThatThrownBy(() -> body.writeTo(OutputStream.nullOutputStream()))
+                .isInstanceOf(NullPointerException.class);
+
+        assertThatCode(() -> this.exportService.exportJobs(null, ExportFormatEnum.NDJSON))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void permitIsReleasedWhenBodyNeverRuns() throws Exception {
+        StreamingResponseBody body = this.exportService.exportJobs(null, ExportFormatEnum.NDJSON);
+
+        // giống StreamingResponseBodyReturnValueHandler, nhưng executor async đã đầy
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(this.request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(this.request, this.response));
+        asyncManager.setTaskExecutor(new ConcurrentTaskExecutor(task -> {
+            throw new RejectedExecutionException("queue full");
+        }));
+        asyncManager.startCallableProcessing(() -> {
+            body.writeTo(OutputStream.nullOutputStream());
+            return null;
+        });
+        this.request.getAsyncContext().complete();
+
+        assertThatCode(() -> this.exportService.exportJobs(null, ExportFormatEnum.NDJSON))
+                .doesNotThrowAnyException();
+        // body chạy muộn sau khi permit đã trả thì bỏ qua, không export
+        body.writeTo(OutputStream.nullOutputStream());
+        verifyNoInteractions(this.entityManager);
+    }
+}
@@ -0,0 +1,100 @@
+package vn.hoangtung.jobfind.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import vn.hoangtung.jobfind.repository.FileBlobRepository;
+import vn.hoangtung.jobfind.repository.StoredFileRepository;
+
+/**
+ * publish / register trên bảng thật: nhiều tên dùng chung 1 blob thì ref_count
+ * tăng theo số tên, upload lại đúng tên cũ thì không tăng. H2 chạy MODE=MySQL
+ * vì FileBlobRepository / StoredFileRepository dùng "insert ignore".
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:file-blobs;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FileServiceRefCountTests {
+
+    private static final byte[] PDF = { '%', 'P', 'D', 'F', '-', '1', '.', '7' };
+
+    @TempDir
+    Path root;
+
+    @Autowired
+    private FileBlobRepository fileBlobRepository;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private FileService fileService;
+
+    @BeforeEach
+    void setUp() {
+        this.fileService = new FileService(this.fileBlobRepository, this.storedFileRepository,
+                this.transactionManager, new MockEnvironment());
+        ReflectionTestUtils.setField(this.fileService, "baseURI", this.root.toUri().toString());
+    }
+
+    @Test
+    void sameContentUnderTwoNamesSharesOneBlob() throws Exception {
+        String first = this.upload("a.pdf");
+        String second = this.upload("b.pdf");
+
+        assertThat(first).isNotEqualTo(second);
+        assertThat(this.count("file_blobs")).isEqualTo(1);
+        assertThat(this.count("stored_files")).isEqualTo(2);
+        assertThat(this.refCount()).isEqualTo(2);
+        assertThat(this.blobFiles()).isEqualTo(1);
+    }
+
+    @Test
+    void reuploadingSameNameDoesNotIncrementRefCount() throws Exception {
+        String first = this.upload("a.pdf");
+        String again = this.upload("a.pdf");
+
+        assertThat(again).isEqualTo(first);
+        assertThat(this.count("stored_files")).isEqualTo(1);
+        assertThat(this.refCount()).isEqualTo(1);
+        assertThat(this.blobFiles()).isEqualTo(1);
+    }
+
+    private String upload(String name) throws Exception {
+        return this.fileService.writeStream(new ByteArrayInputStream(PDF), name, "resume", 1024);
+    }
+
+    private long count(String table) {
+        return this.jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+    }
+
+    private long refCount() {
+        return this.jdbcTemplate.queryForObject("select ref_count from file_blobs", Long.class);
+    }
+
+    private long blobFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(this.root.resolve("blobs"))) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package vn.hoangtung.jobfind.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import vn.hoangtung.jobfind.repository.FileBlobRepository;
+import vn.hoangtung.jobfind.repository.StoredFileRepository;
+import vn.hoangtung.jobfind.util.error.StorageException;
+
+class FileServiceTests {
+
+    private static final byte[] PDF = bytes('%', 'P', 'D', 'F', '-', '1', '.', '7');
+    private static final byte[] PNG = bytes(0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0);
+    private static final byte[] JPEG = bytes(0xFF, 0xD8, 0xFF, 0xE0, 0, 0x10);
+    private static final byte[] DOC = bytes(0xD0, 0xCF, 0x11, 0xE0, 0xA1, 0xB1, 0x1A, 0xE1, 0);
+    private static final byte[] DOCX = bytes('P', 'K', 3, 4, 0x14, 0);
+    private static final byte[] TEXT = bytes('h', 'e', 'l', 'l', 'o');
+
+    @TempDir
+    Path root;
+
+    private FileService fileService;
+    private FileBlobRepository fileBlobRepository;
+    private StoredFileRepository storedFileRepository;
+
+    @BeforeEach
+    void setUp() {
+        this.fileBlobRepository = mock(FileBlobRepository.class);
+        this.storedFileRepository = mock(StoredFileRepository.class);
+        this.fileService = new FileService(this.fileBlobRepository, this.storedFileRepository,
+                mock(PlatformTransactionManager.class), new MockEnvironment());
+        ReflectionTestUtils.setField(this.fileService, "baseURI", this.root.toUri().toString());
+    }
+
+    static Stream<Arguments> magicBytes() {
+        return Stream.of(
+                Arguments.of(PDF, "pdf"),
+                Arguments.of(PNG, "png"),
+                Arguments.of(JPEG, "jpeg"),
+                Arguments.of(DOC, "doc"),
+                Arguments.of(DOCX, "docx"),
+                Arguments.of(TEXT, null),
+                // chỉ có 1 phần của magic PNG
+                Arguments.of(Arrays.copyOf(PNG, 4), null),
+                Arguments.of(new byte[0], null));
+    }
+
+    @ParameterizedTest
+    @MethodSource("magicBytes")
+    void detectsTypeFromMagicBytes(byte[] head, String expected) {
+        assertThat(FileService.detectType(head, head.length)).isEqualTo(expected);
+    }
+
+    @Test
+    void detectTypeOnlyLooksAtReadLength() {
+        // buffer còn byte cũ phía sau, nhưng chỉ đọc được 2 byte
+        assertThat(FileService.detectType(PDF, 2)).isNull();
+    }
+
+    static Stream<Arguments> acceptedUploads() {
+        return Stream.of(
+                Arguments.of(PDF, "cv.pdf"),
+                Arguments.of(PDF, "CV.PDF"),
+                Arguments.of(PNG, "logo.png"),
+                Arguments.of(JPEG, "logo.jpg"),
+                Arguments.of(JPEG, "logo.jpeg"),
+                Arguments.of(DOC, "cv.doc"),
+                Arguments.of(DOCX, "cv.docx"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("acceptedUploads")
+    void storesFileWhoseContentMatchesExtension(byte[] content, String name) throws Exception {
+        String fileName = this.fileService.writeStream(new ByteArrayInputStream(content), name, "resume", 1024);
+
+        assertThat(fileName).endsWith("-" + name);
+        assertThat(this.tmpFiles()).isZero();
+    }
+
+    static Stream<Arguments> rejectedUploads() {
+        return Stream.of(
+                // nội dung không khớp đuôi file
+                Arguments.of(PDF, "cv.docx"),
+                Arguments.of(PNG, "logo.jpg"),
+                Arguments.of(JPEG, "logo.png"),
+                Arguments.of(DOCX, "cv.doc"),
+                // đổi đuôi file text / không có đuôi
+                Arguments.of(TEXT, "cv.pdf"),
+                Arguments.of(PDF, "cv"),
+                Arguments.of(DOCX, "archive.zip"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("rejectedUploads")
+    void rejectsFileWhoseContentDoesNotMatchExtension(byte[] content, String name) {
+        assertThatThrownBy(() -> this.fileService.writeStream(new ByteArrayInputStream(content), name, "resume", 1024))
+                .isInstanceOf(StorageException.class)
+                .hasMessageContaining("Invalid file type");
+    }
+
+    @Test
+    void rejectsEmptyFile() {
+        assertThatThrownBy(() -> this.fileService.writeStream(InputStream.nullInputStream(), "cv.pdf", "resume", 1024))
+                .isInstanceOf(StorageException.class)
+                .hasMessageContaining("empty");
+    }
+
+    @Test
+    void oversizeUploadIsAbortedAndTempFileDeleted() throws IOException {
+        // 200 KB, lớn hơn buffer 64 KB => vượt giới hạn giữa lúc đang ghi
+        byte[] content = Arrays.copyOf(PDF, 200 * 1024);
+        long maxSize = 100 * 1024;
+
+        assertThatThrownBy(() -> this.fileService.writeStream(new ByteArrayInputStream(content), "cv.pdf", "resume",
+                maxSize))
+                .isInstanceOf(StorageException.class)
+                .hasMessageContaining("exceeds");
+
+        assertThat(this.tmpFiles()).isZero();
+        assertThat(this.root.resolve("blobs")).doesNotExist();
+    }
+
+    @Test
+    void uploadExactlyAtLimitIsAccepted() throws Exception {
+        byte[] content = Arrays.copyOf(PDF, 100 * 1024);
+
+        String fileName = this.fileService.writeStream(new ByteArrayInputStream(content), "cv.pdf", "resume",
+                content.length);
+
+        assertThat(fileName).endsWith("-cv.pdf");
+    }
+
+    @Test
+    void migrationMovesLegacyFileIntoBlobStoreAndRerunIsNoOp() throws Exception {
+        Path legacy = this.legacyFile("resume", "cv.pdf", PDF);
+        String sha = sha256(PDF);
+
+        assertThat(this.fileService.migrateLegacyFiles()).isEqualTo(1);
+
+        assertThat(legacy).doesNotExist();
+        assertThat(this.blob(sha)).hasBinaryContent(PDF);
+        verify(this.storedFileRepository).insertIfAbsent(eq("resume"), eq("cv.pdf"), eq(sha), any(Instant.class));
+
+        // chạy lại: không còn file kiểu cũ, không ghi bảng thêm lần nào
+        assertThat(this.fileService.migrateLegacyFiles()).isZero();
+        assertThat(this.blob(sha)).hasBinaryContent(PDF);
+        verify(this.storedFileRepository).insertIfAbsent(anyString(), anyString(), anyString(), any(Instant.class));
+    }
+
+    @Test
+    void migrationReusesBlobThatAlreadyExists() throws Exception {
+        // cùng nội dung đã được upload vào blob store từ trước
+        this.fileService.writeStream(new ByteArrayInputStream(PDF), "new.pdf", "resume", 1024);
+        String sha = sha256(PDF);
+        Path legacy = this.legacyFile("resume", "old.pdf", PDF);
+
+        assertThat(this.fileService.migrateLegacyFiles()).isEqualTo(1);
+
+        assertThat(legacy).doesNotExist();
+        assertThat(this.blob(sha)).hasBinaryContent(PDF);
+        verify(this.storedFileRepository).insertIfAbsent(eq("resume"), eq("old.pdf"), eq(sha), any(Instant.class));
+    }
+
+    @Test
+    void migrationFallsBackToCopyWhenHardLinkIsNotSupported() throws Exception {
+        FileService noLinks = spy(this.fileService);
+        // FAT/exFAT hoặc khác ổ: createLink ném FileSystemException
+        doThrow(new FileSystemException("hard links not supported"))
+                .when(noLinks).createLink(any(Path.class), any(Path.class));
+        Path legacy = this.legacyFile("company", "logo.png", PNG);
+        String sha = sha256(PNG);
+
+        assertThat(noLinks.migrateLegacyFiles()).isEqualTo(1);
+
+        assertThat(legacy).doesNotExist();
+        assertThat(this.blob(sha)).hasBinaryContent(PNG);
+        assertThat(this.tmpFiles()).isZero();
+        verify(this.storedFileRepository).insertIfAbsent(eq("company"), eq("logo.png"), eq(sha), any(Instant.class));
+    }
+
+    @Test
+    void migrationKeepsLegacyFileWhenBlobCannotBeWritten() throws Exception {
+        FileService broken = spy(this.fileService);
+        doThrow(new IOException("disk error")).when(broken).createLink(any(Path.class), any(Path.class));
+        Path legacy = this.legacyFile("resume", "cv.pdf", PDF);
+
+        assertThatThrownBy(broken::migrateLegacyFiles).isInstanceOf(IOException.class);
+
+        assertThat(legacy).hasBinaryContent(PDF);
+        verify(this.storedFileRepository, never()).insertIfAbsent(anyString(), anyString(), anyString(),
+                any(Instant.class));
+    }
+
+    private Path legacyFile(String folder, String name, byte[] content) throws IOException {
+        Path dir = Files.createDirectories(this.root.resolve(folder));
+        return Files.write(dir.resolve(name), content);
+    }
+
+    private Path blob(String sha) {
+        return this.root.resolve("blobs").resolve(sha.substring(0, 2)).resolve(sha.substring(2, 4)).resolve(sha);
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    private long tmpFiles() throws IOException {
+        Path tmp = this.root.resolve(".tmp");
+        if (!Files.isDirectory(tmp)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(tmp)) {
+            return files.count();
+        }
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,220 @@
+package vn.hoangtung.jobfind.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import vn.hoangtung.jobfind.domain.Company;
+import vn.hoangtung.jobfind.domain.Job;
+import vn.hoangtung.jobfind.domain.Skill;
+import vn.hoangtung.jobfind.domain.response.job.ResBulkImportJobDTO;
+
+/**
+ * So sánh số round-trip JDBC của bulk import với đường tạo từng job
+ * (JobService.create). DataSource được bọc proxy đếm mọi lần execute* trên
+ * Statement, 1 executeBatch = 1 round-trip.
+ */
+@DataJpaTest(properties = "hoangtung.import.chunk-size=500")
+@Import({ JobImportService.class, JobService.class, PaginationService.class,
+        JobImportServiceTests.StatementCounterConfig.class })
+class JobImportServiceTests {
+
+    private static final AtomicLong EXECUTED = new AtomicLong();
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private JobImportService jobImportService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private JobSearchService jobSearchService;
+
+    @MockBean
+    private JobDetailCacheService jobDetailCacheService;
+
+    private List<Skill> skills;
+    private Company company;
+
+    @BeforeEach
+    void setUp() {
+        this.skills = List.of(skill("Java"), skill("Spring"), skill("React"));
+        Company company = new Company();
+        company.setName("Company A");
+        this.company = this.testEntityManager.persist(company);
+        this.testEntityManager.flush();
+        this.testEntityManager.clear();
+    }
+
+    @Test
+    void importUsesConstantNumberOfStatements() {
+        long ten = this.countStatements(() -> {
+            ResBulkImportJobDTO res = this.jobImportService.importJobs(this.jobs(10));
+            assertThat(res.getSuccess()).isEqualTo(10);
+        });
+        long hundred = this.countStatements(() -> {
+            ResBulkImportJobDTO res = this.jobImportService.importJobs(this.jobs(100));
+            assertThat(res.getSuccess()).isEqualTo(100);
+        });
+
+        // skill + company lookup, 1 batch insert jobs, 1 batch insert job_skill
+        assertThat(ten).isEqualTo(4);
+        assertThat(hundred).isEqualTo(ten);
+        assertThat(this.jobSkillRows()).isEqualTo(110L * 2);
+    }
+
+    @Test
+    void importTakesFarFewerStatementsThanCreatingJobsOneByOne() {
+        int n = 100;
+        long perJob = this.countStatements(() -> {
+            for (Job job : this.jobs(n)) {
+                this.jobService.create(job);
+            }
+            this.testEntityManager.flush();
+        });
+        long bulk = this.countStatements(() -> this.jobImportService.importJobs(this.jobs(n)));
+
+        // mỗi job: lookup skill + insert job + insert job_skill => tăng tuyến tính theo n
+        assertThat(perJob).isGreaterThanOrEqualTo(3L * n);
+        assertThat(bulk).isLessThan(perJob / 50);
+        assertThat(this.jobSkillRows()).isEqualTo(2L * n * 2);
+    }
+
+    @Test
+    void invalidRowsAreReportedWithoutFailingTheBatch() {
+        List<Job> jobs = this.jobs(3);
+        Skill missing = new Skill();
+        missing.setId(Long.MAX_VALUE);
+        jobs.get(1).setSkills(List.of(missing));
+
+        ResBulkImportJobDTO res = this.jobImportService.importJobs(jobs);
+
+        assertThat(res.getSuccess()).isEqualTo(2);
+        assertThat(res.getFailed()).isEqualTo(1);
+        assertThat(res.getRows().get(1).getError()).contains("không tồn tại");
+        assertThat(res.getRows().get(0).getId()).isNotNull();
+    }
+
+    private long countStatements(Runnable action) {
+        this.testEntityManager.clear();
+        long before = EXECUTED.get();
+        action.run();
+        return EXECUTED.get() - before;
+    }
+
+    private long jobSkillRows() {
+        return this.jdbcTemplate.queryForObject("select count(*) from job_skill", Long.class);
+    }
+
+    // job mới chỉ mang id của skill / company, giống payload của API
+    private List<Job> jobs(int count) {
+        List<Job> jobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Job job = new Job();
+            job.setName("Job " + i);
+            job.setLocation("HANOI");
+            job.setActive(true);
+            Company ref = new Company();
+            ref.setId(this.company.getId());
+            job.setCompany(ref);
+            List<Skill> refs = new ArrayList<>();
+            for (Skill skill : List.of(this.skills.get(i % 3), this.skills.get((i + 1) % 3))) {
+                Skill s = new Skill();
+                s.setId(skill.getId());
+                refs.add(s);
+            }
+            job.setSkills(refs);
+            jobs.add(job);
+        }
+        return jobs;
+    }
+
+    private Skill skill(String name) {
+        Skill skill = new Skill();
+        skill.setName(name);
+        return this.testEntityManager.persist(skill);
+    }
+
+    @TestConfiguration
+    static class StatementCounterConfig {
+
+        private static final Set<String> EXECUTE_METHODS = Set.of(
+                "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch",
+                "executeLargeBatch");
+
+        @Bean
+        static BeanPostProcessor statementCounter() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? countingDataSource(dataSource) : bean;
+                }
+            };
+        }
+
+        private static DataSource countingDataSource(DataSource target) {
+            return proxy(DataSource.class, target, "getConnection");
+        }
+
+        // bọc DataSource -> Connection -> Statement, đếm ở tầng Statement
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, Object target, String wrapMethod) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                    (p, method, args) -> {
+                        Object result;
+                        try {
+                            result = method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                        if (target instanceof Statement && EXECUTE_METHODS.contains(method.getName())) {
+                            EXECUTED.incrementAndGet();
+                        }
+                        if (result instanceof Connection connection && method.getName().equals(wrapMethod)) {
+                            return proxy(Connection.class, connection, null);
+                        }
+                        if (target instanceof Connection && result instanceof Statement statement) {
+                            return proxy(statementType(statement), statement, null);
+                        }
+                        return result;
+                    });
+        }
+
+        private static Class<? extends Statement> statementType(Statement statement) {
+            if (statement instanceof java.sql.CallableStatement) {
+                return java.sql.CallableStatement.class;
+            }
+            if (statement instanceof java.sql.PreparedStatement) {
+                return java.sql.PreparedStatement.class;
+            }
+            return Statement.class;
+        }
+    }
+}
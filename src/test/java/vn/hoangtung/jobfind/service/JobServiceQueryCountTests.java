@@ -0,0 +1,155 @@
+package vn.hoangtung.jobfind.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import vn.hoangtung.jobfind.domain.Company;
+import vn.hoangtung.jobfind.domain.Job;
+import vn.hoangtung.jobfind.domain.Skill;
+import vn.hoangtung.jobfind.domain.response.ResultPaginationDTO;
+import vn.hoangtung.jobfind.domain.response.job.ResFetchJobDTO;
+import vn.hoangtung.jobfind.util.error.IdInvalidException;
+
+/**
+ * Trang danh sách job phải load trong số query cố định (trang + count + skills),
+ * không phụ thuộc số job trong trang. Đếm statement bằng Hibernate statistics.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // EXACT để trang nào cũng chạy COUNT, không bị cache giữa 2 lần gọi
+        "hoangtung.pagination.count-strategy.jobs=EXACT"
+})
+@Import({ JobService.class, PaginationService.class })
+class JobServiceQueryCountTests {
+
+    private static final int JOB_COUNT = 25;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private JobService jobService;
+
+    @MockBean
+    private JobSearchService jobSearchService;
+
+    @MockBean
+    private JobDetailCacheService jobDetailCacheService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<Skill> skills = List.of(skill("Java"), skill("Spring"), skill("React"));
+        List<Company> companies = List.of(company("Company A"), company("Company B"), company("Company C"));
+        for (int i = 0; i < JOB_COUNT; i++) {
+            Job job = new Job();
+            job.setName("Job " + i);
+            job.setLocation("HANOI");
+            job.setActive(true);
+            job.setCompany(companies.get(i % companies.size()));
+            job.setSkills(List.of(skills.get(i % skills.size()), skills.get((i + 1) % skills.size())));
+            this.testEntityManager.persist(job);
+        }
+        this.testEntityManager.flush();
+
+        this.statistics = this.testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void pageOfOneAndPageOfTwentyUseSameNumberOfStatements() throws Exception {
+        long single = this.countStatements(1);
+        long twenty = this.countStatements(20);
+
+        // select trang (join fetch company) + count + skills của cả trang
+        assertThat(single).isEqualTo(3);
+        assertThat(twenty).isEqualTo(single);
+    }
+
+    @Test
+    void pageIsMappedWithCompanyAndSkills() throws Exception {
+        List<ResFetchJobDTO> jobs = this.fetchPage(20);
+
+        assertThat(jobs).hasSize(20);
+        assertThat(jobs).allSatisfy(job -> {
+            assertThat(job.getCompany()).isNotNull();
+            assertThat(job.getCompany().getName()).startsWith("Company");
+            assertThat(job.getSkills()).hasSize(2);
+        });
+    }
+
+    @Test
+    void pageWhoseOffsetOverflowsIntIsRejected() {
+        // offset = 2^30 * 4 > Integer.MAX_VALUE, trước đây bị ép kiểu thành offset âm / sai
+        PageRequest page = PageRequest.of(1 << 30, 4);
+
+        assertThatThrownBy(() -> this.jobService.fetchAll(null, page, null, false))
+                .isInstanceOf(IdInvalidException.class);
+    }
+
+    @Test
+    void cursorSortByUnknownOrAssociationFieldIsRejected() {
+        assertThatThrownBy(() -> this.jobService.fetchAllByCursor(null,
+                PageRequest.of(0, 10, Sort.by("noSuchField")), ""))
+                .isInstanceOf(IdInvalidException.class)
+                .hasMessageContaining("noSuchField");
+        assertThatThrownBy(() -> this.jobService.fetchAllByCursor(null,
+                PageRequest.of(0, 10, Sort.by("company")), ""))
+                .isInstanceOf(IdInvalidException.class);
+        assertThatThrownBy(() -> this.jobService.fetchAllByCursor(null,
+                PageRequest.of(0, 10, Sort.by("skills")), ""))
+                .isInstanceOf(IdInvalidException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cursorSortByPlainFieldStillWorks() throws Exception {
+        this.testEntityManager.clear();
+        ResultPaginationDTO rs = this.jobService.fetchAllByCursor(null,
+                PageRequest.of(0, 10, Sort.by("name")), "");
+
+        assertThat((List<ResFetchJobDTO>) rs.getResult()).hasSize(10);
+    }
+
+    private long countStatements(int pageSize) throws Exception {
+        this.statistics.clear();
+        List<ResFetchJobDTO> jobs = this.fetchPage(pageSize);
+        assertThat(jobs).hasSize(pageSize);
+        return this.statistics.getPrepareStatementCount();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ResFetchJobDTO> fetchPage(int pageSize) throws Exception {
+        // bỏ persistence context để mọi thứ phải đọc lại từ DB
+        this.testEntityManager.clear();
+        ResultPaginationDTO rs = this.jobService.fetchAll(null, PageRequest.of(0, pageSize), null, false);
+        return (List<ResFetchJobDTO>) rs.getResult();
+    }
+
+    private Skill skill(String name) {
+        Skill skill = new Skill();
+        skill.setName(name);
+        return this.testEntityManager.persist(skill);
+    }
+
+    private Company company(String name) {
+        Company company = new Company();
+        company.setName(name);
+        return this.testEntityManager.persist(company);
+    }
+}
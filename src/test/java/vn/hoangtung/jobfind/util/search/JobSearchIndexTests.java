@@ -0,0 +1,56 @@
+package vn.hoangtung.jobfind.util.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JobSearchIndexTests {
+
+    private JobSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        this.index = new JobSearchIndex();
+        for (int id = 1; id <= 5; id++) {
+            this.index.put(id, Map.of(
+                    JobSearchIndex.Field.NAME, List.of("Java developer " + id),
+                    JobSearchIndex.Field.SKILL, id % 2 == 0 ? List.of("Java") : List.of()));
+        }
+    }
+
+    @Test
+    void pagesThroughRankedMatches() {
+        JobSearchIndex.SearchResult first = this.index.search("java", 0, 2);
+        JobSearchIndex.SearchResult second = this.index.search("java", 2, 2);
+
+        assertThat(first.total()).isEqualTo(5);
+        // job có skill Java được cộng điểm nên đứng đầu
+        assertThat(first.ids()).containsExactly(4L, 2L);
+        assertThat(second.ids()).hasSize(2).doesNotContainAnyElementsOf(first.ids());
+    }
+
+    @Test
+    void offsetPastTotalReturnsEmptyPage() {
+        JobSearchIndex.SearchResult result = this.index.search("java", 5, 10);
+
+        assertThat(result.total()).isEqualTo(5);
+        assertThat(result.ids()).isEmpty();
+    }
+
+    @Test
+    void hugeOffsetDoesNotOverflowOrAllocate() {
+        JobSearchIndex.SearchResult result = this.index.search("java", Integer.MAX_VALUE - 10, 20);
+
+        assertThat(result.total()).isEqualTo(5);
+        assertThat(result.ids()).isEmpty();
+    }
+
+    @Test
+    void lastPartialPageKeepsOnlyRemainingMatches() {
+        assertThat(this.index.search("java", 4, Integer.MAX_VALUE).ids()).hasSize(1);
+    }
+}